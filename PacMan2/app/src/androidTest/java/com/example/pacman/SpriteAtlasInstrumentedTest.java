@@ -0,0 +1,33 @@
+package com.example.pacman;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.pacman.engine.GameEngine;
+import com.example.pacman.engine.WorldSnapshot;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/** Atlas checks that need real bitmaps, so they run on a device. */
+@RunWith(AndroidJUnit4.class)
+public class SpriteAtlasInstrumentedTest {
+    @Test
+    public void actors_areDrawnFromAtlas() {
+        SpriteAtlas atlas = new SpriteAtlas(new PacmanPainter(), new GhostPainter());
+        WorldSnapshot world = new WorldSnapshot();
+        world.capture(new GameEngine(1L));
+        Canvas canvas = new Canvas(Bitmap.createBitmap(1000, 1200, Bitmap.Config.ARGB_8888));
+
+        for (int i = 0; i < world.getGhostCount(); i++) {
+            assertTrue(atlas.drawGhost(canvas, world, i, 50, 0, 0, 1f));
+        }
+        assertTrue(atlas.drawPacman(canvas, world, 50, 0, 0, 1f));
+        assertTrue(atlas.getMemoryBytes() > 0);
+        assertTrue(atlas.getMemoryBytes() <= SpriteAtlas.MAX_BYTES);
+    }
+}
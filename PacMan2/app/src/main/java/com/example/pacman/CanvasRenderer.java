@@ -0,0 +1,281 @@
+package com.example.pacman;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.view.SurfaceHolder;
+import com.example.pacman.engine.GameListener;
+import com.example.pacman.engine.WorldSnapshot;
+
+/**
+ * Software backend: locks the surface's {@link Canvas} each frame and draws
+ * the pre-rendered maze, then every actor as one blit from a
+ * {@link SpriteAtlas}. Used where OpenGL ES cannot be set up.
+ *
+ * <p>In incremental mode the frame is kept in a persistent back buffer and
+ * only what changed is repainted: the cells each actor left and entered,
+ * eaten dots and the HUD lines whose text changed. Just the union of those
+ * areas is locked with {@code lockCanvas(Rect)} and copied to the surface,
+ * and a frame where nothing changed posts nothing. The whole surface is
+ * redrawn only after a resize, a new maze, a toggled overlay, or when the
+ * game ends or restarts.
+ */
+public class CanvasRenderer implements Renderer {
+    private final SurfaceHolder holder;
+    private final MazeLayer mazeLayer;
+    private final PacmanPainter pacmanPainter = new PacmanPainter();
+    private final GhostPainter ghostPainter = new GhostPainter();
+    private final SpriteAtlas atlas = new SpriteAtlas(pacmanPainter, ghostPainter);
+    private final HudPainter hudPainter = new HudPainter();
+    private final PerformanceOverlay performanceOverlay = new PerformanceOverlay();
+    private Canvas canvas;
+    private int width, height;
+    private int blockSize;
+    private int offsetX, offsetY;
+
+    private volatile boolean incremental;
+    private final DirtyRegions regions = new DirtyRegions();
+    private final Rect dirty = new Rect();
+    private final Rect region = new Rect();
+    private final Rect scratch = new Rect();
+    private int[] actorLeft = new int[0];
+    private int[] actorTop = new int[0];
+    private Bitmap backBuffer;
+    private Canvas backCanvas;
+    private int bufferWidth, bufferHeight;
+    private int lastScore, lastLives, lastCountdown;
+    private boolean lastRunning = true;
+    private boolean lastOverlay;
+    private int lastRegionCount;
+    private int lastDirtyArea;
+
+    public CanvasRenderer(SurfaceHolder holder) {
+        this.holder = holder;
+        mazeLayer = new MazeLayer(new GameListener() {
+            @Override
+            public void onMapLoaded() {
+                regions.invalidateAll();
+            }
+
+            @Override
+            public void onDotEaten(int x, int y) {
+                int left = offsetX + x * blockSize;
+                int top = offsetY + y * blockSize;
+                regions.add(left, top, left + blockSize, top + blockSize);
+            }
+        });
+    }
+
+    /**
+     * Switches incremental rendering on or off; the next frame is a full
+     * redraw either way.
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        regions.invalidateAll();
+    }
+
+    @Override
+    public void layout(int width, int height, int blockSize, int offsetX, int offsetY) {
+        this.width = width;
+        this.height = height;
+        this.blockSize = blockSize;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        mazeLayer.rebuild(blockSize);
+        regions.setSurface(width, height);
+    }
+
+    @Override
+    public boolean beginFrame() {
+        if (incremental) {
+            return holder.getSurface().isValid();
+        }
+        canvas = holder.lockCanvas();
+        return canvas != null;
+    }
+
+    @Override
+    public void drawFrame(WorldSnapshot world, float alpha, FrameStats stats) {
+        mazeLayer.sync(world);
+        if (incremental) {
+            drawIncremental(world, alpha, stats);
+        } else {
+            draw(canvas, world, alpha, stats);
+        }
+    }
+
+    /** Draws one frame into any canvas, such as a bitmap for a screenshot. */
+    public void draw(Canvas canvas, WorldSnapshot world, float alpha, FrameStats stats) {
+        canvas.drawColor(Color.BLACK);
+
+        mazeLayer.draw(canvas, offsetX, offsetY);
+        drawActors(canvas, world, null, alpha);
+
+        hudPainter.draw(canvas, world, width, height);
+
+        if (stats != null) {
+            performanceOverlay.draw(canvas, stats, world, 20, 80);
+        }
+    }
+
+    /** Draws every actor, or only those overlapping {@code region} when it is not null. */
+    private void drawActors(Canvas canvas, WorldSnapshot world, Rect region, float alpha) {
+        for (int i = 0; i < world.getGhostCount(); i++) {
+            if (region != null && !overlaps(region, offsetX + world.getGhostRenderX(i, alpha, blockSize),
+                    offsetY + world.getGhostRenderY(i, alpha, blockSize))) {
+                continue;
+            }
+            if (!atlas.drawGhost(canvas, world, i, blockSize, offsetX, offsetY, alpha)) {
+                ghostPainter.draw(canvas, world, i, blockSize, offsetX, offsetY, alpha);
+            }
+        }
+
+        if (region != null && !overlaps(region, offsetX + world.getPacmanRenderX(alpha, blockSize),
+                offsetY + world.getPacmanRenderY(alpha, blockSize))) {
+            return;
+        }
+        if (!atlas.drawPacman(canvas, world, blockSize, offsetX, offsetY, alpha)) {
+            pacmanPainter.draw(canvas, world, blockSize, offsetX, offsetY, alpha);
+        }
+    }
+
+    private boolean overlaps(Rect region, float left, float top) {
+        return left < region.right && left + blockSize > region.left
+                && top < region.bottom && top + blockSize > region.top;
+    }
+
+    private void drawIncremental(WorldSnapshot world, float alpha, FrameStats stats) {
+        if (backCanvas == null || bufferWidth != width || bufferHeight != height) {
+            if (backBuffer != null) {
+                backBuffer.recycle();
+            }
+            bufferWidth = width;
+            bufferHeight = height;
+            backBuffer = Bitmap.createBitmap(Math.max(width, 1), Math.max(height, 1), Bitmap.Config.ARGB_8888);
+            backCanvas = new Canvas(backBuffer);
+            regions.invalidateAll();
+        }
+        collectChanges(world, alpha, stats);
+        lastRegionCount = regions.isFull() ? -1 : regions.size();
+        if (regions.isEmpty()) {
+            return;
+        }
+
+        regions.copyBounds(dirty);
+        if (regions.isFull()) {
+            paintRegion(world, dirty, alpha, stats);
+        } else {
+            for (int i = 0; i < regions.size(); i++) {
+                regions.copy(i, region);
+                paintRegion(world, region, alpha, stats);
+            }
+        }
+
+        lastDirtyArea = (regions.getBoundsRight() - regions.getBoundsLeft())
+                * (regions.getBoundsBottom() - regions.getBoundsTop());
+        canvas = holder.lockCanvas(dirty);
+        if (canvas == null) {
+            regions.invalidateAll();
+            return;
+        }
+        canvas.drawBitmap(backBuffer, dirty, dirty, null);
+        regions.clear();
+    }
+
+    /** Adds what changed since the last frame to {@link #regions}. */
+    private void collectChanges(WorldSnapshot world, float alpha, FrameStats stats) {
+        boolean running = world.isGameRunning();
+        boolean overlay = stats != null;
+        if (running != lastRunning || overlay != lastOverlay) {
+            lastRunning = running;
+            lastOverlay = overlay;
+            regions.invalidateAll();
+        }
+
+        if (world.getScore() != lastScore || world.getLives() != lastLives) {
+            lastScore = world.getScore();
+            lastLives = world.getLives();
+            hudPainter.getTopBarBounds(scratch, width);
+            regions.add(scratch);
+        }
+        int countdown = running ? 0 : world.getRestartSecondsLeft();
+        if (countdown != lastCountdown) {
+            lastCountdown = countdown;
+            hudPainter.getMessageBounds(scratch, width, height);
+            regions.add(scratch);
+        }
+        if (overlay && performanceOverlay.update(stats, world)) {
+            performanceOverlay.getBounds(scratch, 20, 80);
+            regions.add(scratch);
+        }
+
+        int ghosts = world.getGhostCount();
+        if (actorLeft.length != ghosts + 1) {
+            actorLeft = new int[ghosts + 1];
+            actorTop = new int[ghosts + 1];
+            regions.invalidateAll();
+        }
+        for (int i = 0; i < ghosts; i++) {
+            moveActor(i, offsetX + (int) world.getGhostRenderX(i, alpha, blockSize),
+                    offsetY + (int) world.getGhostRenderY(i, alpha, blockSize), running);
+        }
+        moveActor(ghosts, offsetX + (int) world.getPacmanRenderX(alpha, blockSize),
+                offsetY + (int) world.getPacmanRenderY(alpha, blockSize), running);
+    }
+
+    /**
+     * Marks the cell an actor was drawn in last frame and the one it is drawn
+     * in now, with a pixel of slack for antialiasing. Actors animate in place
+     * while the game runs, so only a finished game lets still actors go
+     * unpainted.
+     */
+    private void moveActor(int actor, int left, int top, boolean animating) {
+        if (!animating && left == actorLeft[actor] && top == actorTop[actor]) {
+            return;
+        }
+        regions.add(actorLeft[actor] - 1, actorTop[actor] - 1,
+                actorLeft[actor] + blockSize + 2, actorTop[actor] + blockSize + 2);
+        regions.add(left - 1, top - 1, left + blockSize + 2, top + blockSize + 2);
+        actorLeft[actor] = left;
+        actorTop[actor] = top;
+    }
+
+    /** Repaints every layer of the back buffer inside {@code region}. */
+    private void paintRegion(WorldSnapshot world, Rect region, float alpha, FrameStats stats) {
+        backCanvas.save();
+        backCanvas.clipRect(region);
+        backCanvas.drawColor(Color.BLACK);
+        mazeLayer.drawRegion(backCanvas, offsetX, offsetY, region);
+        drawActors(backCanvas, world, region, alpha);
+        hudPainter.draw(backCanvas, world, width, height);
+        if (stats != null) {
+            performanceOverlay.drawLines(backCanvas, 20, 80);
+        }
+        backCanvas.restore();
+    }
+
+    /** Separate areas repainted by the last incremental frame; -1 for a full redraw. */
+    int getLastRegionCount() {
+        return lastRegionCount;
+    }
+
+    /** Pixels of the surface locked by the last incremental frame that drew anything. */
+    int getLastDirtyArea() {
+        return lastDirtyArea;
+    }
+
+    @Override
+    public void endFrame() {
+        Canvas posted = canvas;
+        canvas = null;
+        if (posted != null) {
+            holder.unlockCanvasAndPost(posted);
+        }
+    }
+
+    @Override
+    public void release() {
+    }
+}
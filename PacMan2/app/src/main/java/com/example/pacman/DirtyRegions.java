@@ -0,0 +1,125 @@
+package com.example.pacman;
+
+import android.graphics.Rect;
+
+/**
+ * Areas of the surface that changed since the last frame, as a short list
+ * of rectangles clipped to the surface. A rectangle that overlaps one
+ * already in the list is merged into it. Once more than
+ * {@link #MAX_REGIONS} separate areas change, or after
+ * {@link #invalidateAll()}, the whole surface counts as dirty.
+ *
+ * <p>Edges are kept in plain int arrays and only copied into a {@link Rect}
+ * when a caller needs one for the canvas.
+ */
+final class DirtyRegions {
+    static final int MAX_REGIONS = 32;
+
+    private final int[] left = new int[MAX_REGIONS];
+    private final int[] top = new int[MAX_REGIONS];
+    private final int[] right = new int[MAX_REGIONS];
+    private final int[] bottom = new int[MAX_REGIONS];
+    private int boundsLeft, boundsTop, boundsRight, boundsBottom;
+    private int count;
+    private boolean full = true;
+    private int width, height;
+
+    /** Sets the surface size; everything is dirty afterwards. */
+    void setSurface(int width, int height) {
+        this.width = width;
+        this.height = height;
+        invalidateAll();
+    }
+
+    void invalidateAll() {
+        full = true;
+        count = 0;
+        boundsLeft = 0;
+        boundsTop = 0;
+        boundsRight = width;
+        boundsBottom = height;
+    }
+
+    void add(Rect r) {
+        add(r.left, r.top, r.right, r.bottom);
+    }
+
+    void add(int l, int t, int r, int b) {
+        if (full) return;
+        if (l < 0) l = 0;
+        if (t < 0) t = 0;
+        if (r > width) r = width;
+        if (b > height) b = height;
+        if (l >= r || t >= b) return;
+
+        if (count == 0) {
+            boundsLeft = l;
+            boundsTop = t;
+            boundsRight = r;
+            boundsBottom = b;
+        } else {
+            boundsLeft = Math.min(boundsLeft, l);
+            boundsTop = Math.min(boundsTop, t);
+            boundsRight = Math.max(boundsRight, r);
+            boundsBottom = Math.max(boundsBottom, b);
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (l <= right[i] && r >= left[i] && t <= bottom[i] && b >= top[i]) {
+                left[i] = Math.min(left[i], l);
+                top[i] = Math.min(top[i], t);
+                right[i] = Math.max(right[i], r);
+                bottom[i] = Math.max(bottom[i], b);
+                return;
+            }
+        }
+        if (count == MAX_REGIONS) {
+            invalidateAll();
+            return;
+        }
+        left[count] = l;
+        top[count] = t;
+        right[count] = r;
+        bottom[count] = b;
+        count++;
+    }
+
+    boolean isFull() {
+        return full;
+    }
+
+    boolean isEmpty() {
+        return !full && count == 0;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int getLeft(int i) { return left[i]; }
+    int getTop(int i) { return top[i]; }
+    int getRight(int i) { return right[i]; }
+    int getBottom(int i) { return bottom[i]; }
+
+    /** Copies area {@code i} into {@code out}. */
+    void copy(int i, Rect out) {
+        out.set(left[i], top[i], right[i], bottom[i]);
+    }
+
+    /** Edges of the union of every dirty area; the whole surface when full, all zero when empty. */
+    int getBoundsLeft() { return isEmpty() ? 0 : boundsLeft; }
+    int getBoundsTop() { return isEmpty() ? 0 : boundsTop; }
+    int getBoundsRight() { return isEmpty() ? 0 : boundsRight; }
+    int getBoundsBottom() { return isEmpty() ? 0 : boundsBottom; }
+
+    /** Copies the union of every dirty area into {@code out}. */
+    void copyBounds(Rect out) {
+        out.set(getBoundsLeft(), getBoundsTop(), getBoundsRight(), getBoundsBottom());
+    }
+
+    /** Starts the next frame with nothing dirty. */
+    void clear() {
+        full = false;
+        count = 0;
+    }
+}
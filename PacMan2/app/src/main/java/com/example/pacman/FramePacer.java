@@ -0,0 +1,72 @@
+package com.example.pacman;
+
+/**
+ * Decides which display vsyncs get a new frame. Frames are due every
+ * {@link #getFrameIntervalNanos} on a schedule kept in vsync time, so a
+ * 30 fps target on a 60 Hz display draws every other vsync without drifting.
+ * A vsync within half a refresh period of the due time counts as on time.
+ *
+ * <p>Static screens, such as the game-over countdown, are drawn at
+ * {@link #IDLE_FRAME_RATE}; {@link #requestFrame()} draws the next vsync
+ * anyway, for when something visible changes in between.
+ */
+final class FramePacer {
+    /** Draws on every vsync. */
+    static final int RATE_NATIVE = 0;
+    static final int IDLE_FRAME_RATE = 1;
+
+    private static final long SECOND = 1000000000L;
+
+    private volatile long refreshPeriodNanos = SECOND / 60;
+    private volatile int targetFrameRate = RATE_NATIVE;
+    private volatile boolean requested = true;
+    private long nextFrameNanos;
+
+    void setRefreshRate(float hertz) {
+        if (hertz > 0) {
+            refreshPeriodNanos = (long) (SECOND / hertz);
+        }
+    }
+
+    long getRefreshPeriodNanos() {
+        return refreshPeriodNanos;
+    }
+
+    /** Frames per second to aim for, or {@link #RATE_NATIVE}; never above the refresh rate. */
+    void setTargetFrameRate(int framesPerSecond) {
+        targetFrameRate = Math.max(RATE_NATIVE, framesPerSecond);
+        requested = true;
+    }
+
+    int getTargetFrameRate() {
+        return targetFrameRate;
+    }
+
+    long getFrameIntervalNanos(boolean idle) {
+        long period = refreshPeriodNanos;
+        int rate = idle ? IDLE_FRAME_RATE : targetFrameRate;
+        return rate == RATE_NATIVE ? period : Math.max(period, SECOND / rate);
+    }
+
+    /** Draws the next vsync regardless of the schedule. */
+    void requestFrame() {
+        requested = true;
+    }
+
+    /** Whether the vsync at {@code frameTimeNanos} gets a frame; if so, schedules the next one. */
+    boolean shouldDraw(long frameTimeNanos, boolean idle) {
+        long slack = refreshPeriodNanos / 2;
+        boolean wake = requested;
+        if (!wake && frameTimeNanos + slack < nextFrameNanos) {
+            return false;
+        }
+        requested = false;
+
+        long interval = getFrameIntervalNanos(idle);
+        nextFrameNanos += interval;
+        if (wake || nextFrameNanos + slack <= frameTimeNanos) {
+            nextFrameNanos = frameTimeNanos + interval;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.pacman;
+
+import java.util.Arrays;
+
+/**
+ * Per-frame timings kept in fixed-size ring buffers, one per phase of
+ * {@link GameThread}'s loop. Recording is a handful of array stores; the
+ * percentiles are computed on demand from a preallocated scratch copy, so
+ * neither side allocates. Input latency is recorded by the simulation thread
+ * and read by the render thread, so its ring is guarded by a lock of its own.
+ */
+public class FrameStats {
+    public static final int UPDATE = 0;
+    public static final int DRAW = 1;
+    public static final int LOCK = 2;
+    public static final int POST = 3;
+    public static final int LATENESS = 4;
+    public static final int INTERVAL = 5;
+    public static final int METRICS = 6;
+
+    public static final String[] NAMES = {"update", "draw", "lock", "post", "late", "frame"};
+
+    private final long[][] samples;
+    private final long[] inputLatency;
+    private final long[] inputScratch;
+    private final Object inputLock = new Object();
+    private final long[] scratch;
+    private final int capacity;
+    private int next;
+    private int size;
+    private int nextInput;
+    private int inputSize;
+    private long frames;
+    private long droppedFrames;
+    private long framePeriodNanos = 1000000000L / 60;
+
+    public FrameStats() {
+        this(240);
+    }
+
+    public FrameStats(int capacity) {
+        this.capacity = capacity;
+        this.samples = new long[METRICS][capacity];
+        this.inputLatency = new long[capacity];
+        this.inputScratch = new long[capacity];
+        this.scratch = new long[capacity];
+    }
+
+    /**
+     * Expected time between frames, used to detect dropped frames: a frame
+     * interval longer than one and a half periods counts as a drop.
+     */
+    public void setFramePeriodNanos(long framePeriodNanos) {
+        this.framePeriodNanos = framePeriodNanos;
+    }
+
+    public void recordFrame(long update, long draw, long lock, long post, long lateness, long interval) {
+        samples[UPDATE][next] = update;
+        samples[DRAW][next] = draw;
+        samples[LOCK][next] = lock;
+        samples[POST][next] = post;
+        samples[LATENESS][next] = lateness;
+        samples[INTERVAL][next] = interval;
+
+        next = next + 1 == capacity ? 0 : next + 1;
+        if (size < capacity) size++;
+        frames++;
+        if (interval * 2 > framePeriodNanos * 3) {
+            droppedFrames++;
+        }
+    }
+
+    /**
+     * Time from a turn being issued to the end of the tick that handed it to
+     * Pac-Man; one sample per turn. May be called from any thread.
+     */
+    public void recordInputLatency(long latency) {
+        synchronized (inputLock) {
+            inputLatency[nextInput] = latency;
+            nextInput = nextInput + 1 == capacity ? 0 : nextInput + 1;
+            if (inputSize < capacity) inputSize++;
+        }
+    }
+
+    /** Nearest-rank percentile of the buffered samples, {@code percent} in (0, 100]. */
+    public long percentile(int metric, double percent) {
+        return percentile(samples[metric], scratch, size, percent);
+    }
+
+    public long inputLatencyPercentile(double percent) {
+        synchronized (inputLock) {
+            return percentile(inputLatency, inputScratch, inputSize, percent);
+        }
+    }
+
+    private static long percentile(long[] ring, long[] scratch, int count, double percent) {
+        if (count == 0) return 0;
+        System.arraycopy(ring, 0, scratch, 0, count);
+        Arrays.sort(scratch, 0, count);
+        int rank = (int) Math.ceil(percent / 100.0 * count);
+        return scratch[Math.max(0, Math.min(count, rank) - 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public void reset() {
+        next = 0;
+        size = 0;
+        nextInput = 0;
+        inputSize = 0;
+        frames = 0;
+        droppedFrames = 0;
+    }
+}
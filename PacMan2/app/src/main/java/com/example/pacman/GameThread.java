@@ -1,63 +1,183 @@
 package com.example.pacman;
 
-import android.graphics.Canvas;
-import android.view.SurfaceHolder;
+import android.os.Looper;
+import android.view.Choreographer;
+import com.example.pacman.engine.SnapshotBuffer;
+import com.example.pacman.engine.WorldSnapshot;
 
-public class GameThread extends Thread {
-    private SurfaceHolder surfaceHolder;
-    private GameView gameView;
-    private boolean running;
+/**
+ * Render thread: draws the newest {@link WorldSnapshot} published by the
+ * {@link SimulationThread} on display vsync. The thread runs its own
+ * {@link Looper} and is woken by {@link Choreographer} frame callbacks. It
+ * never touches the engine and takes no locks; the snapshot it draws stays
+ * unchanged while the next tick is simulated.
+ *
+ * <p>Frames are pipelined one tick behind the simulation: actors are drawn
+ * between their previous and latest tick positions, by how far the vsync is
+ * past the time the latest tick was due.
+ *
+ * <p>A {@link FramePacer} picks the vsyncs that are drawn. While the game is
+ * over nothing moves, so the countdown is drawn only when its number changes
+ * and the thread wakes once per tick to check. Frames go to the view's
+ * {@link Renderer}; if it cannot start, the view falls back to the Canvas
+ * backend.
+ */
+public class GameThread extends Thread implements Choreographer.FrameCallback {
+    private static final long TICK_NANOS = SimulationThread.TICK_NANOS;
+    private static final int MIN_BLOCK_SIZE = 20;
 
-    public GameThread(SurfaceHolder holder, GameView gameView) {
-        this.surfaceHolder = holder;
+    private Renderer renderer;
+    private final GameView gameView;
+    private final SnapshotBuffer snapshots;
+    private final FramePacer pacer = new FramePacer();
+    private final FrameStats stats;
+    private volatile boolean running;
+    private volatile Looper looper;
+    private Choreographer choreographer;
+
+    private long lastDrawnVsync;
+    private boolean lastIdle;
+    private int lastCountdown;
+    private int layoutWidth, layoutHeight, layoutColumns, layoutRows;
+
+    public GameThread(Renderer renderer, GameView gameView) {
+        this.renderer = renderer;
         this.gameView = gameView;
+        this.snapshots = gameView.getSnapshots();
+        this.stats = gameView.getFrameStats();
     }
 
+    /** Setting false ends the loop; the thread exits after its current frame. */
     public void setRunning(boolean isRunning) {
         this.running = isRunning;
+        Looper current = looper;
+        if (!isRunning && current != null) {
+            current.quit();
+        }
+    }
+
+    /**
+     * Frames per second to draw: 30, 60, or {@link FramePacer#RATE_NATIVE}
+     * for every vsync. Does not affect the simulation tick rate.
+     */
+    public void setTargetFrameRate(int framesPerSecond) {
+        pacer.setTargetFrameRate(framesPerSecond);
+    }
+
+    public void setRefreshRate(float hertz) {
+        pacer.setRefreshRate(hertz);
     }
 
     @Override
     public void run() {
-        long startTime;
-        long timeMillis;
-        long waitTime;
-        long targetTime = 1000 / 30;
-
-        while (running) {
-            startTime = System.nanoTime();
-
-            Canvas canvas = null;
-            try {
-                canvas = surfaceHolder.lockCanvas();
-                synchronized (surfaceHolder) {
-                    if (canvas != null) {
-                        gameView.update();
-                        gameView.draw(canvas);
-                    }
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                if (canvas != null) {
-                    try {
-                        surfaceHolder.unlockCanvasAndPost(canvas);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
+        Looper.prepare();
+        looper = Looper.myLooper();
+        choreographer = Choreographer.getInstance();
+        if (running) {
+            choreographer.postFrameCallback(this);
+            Looper.loop();
+        }
+        choreographer.removeFrameCallback(this);
+        renderer.release();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) {
+            looper.quit();
+            return;
+        }
+        long lateness = System.nanoTime() - frameTimeNanos;
+        WorldSnapshot world = snapshots.acquire();
 
-            timeMillis = (System.nanoTime() - startTime) / 1000000;
-            waitTime = targetTime - timeMillis;
+        boolean idle = !world.isGameRunning();
+        int countdown = idle ? world.getRestartSecondsLeft() : 0;
+        if (idle != lastIdle || countdown != lastCountdown) {
+            lastIdle = idle;
+            lastCountdown = countdown;
+            lastDrawnVsync = 0;
+            pacer.requestFrame();
+        }
+
+        if (pacer.shouldDraw(frameTimeNanos, idle)) {
+            drawFrame(world, frameTimeNanos, lateness, idle);
+        }
+
+        if (idle) {
+            choreographer.postFrameCallbackDelayed(this, TICK_NANOS / 1000000);
+        } else {
+            choreographer.postFrameCallback(this);
+        }
+    }
 
-            try {
-                if (waitTime > 0) {
-                    sleep(waitTime);
+    private void drawFrame(WorldSnapshot world, long frameTimeNanos, long lateness, boolean idle) {
+        long lockTime = 0;
+        long drawTime = 0;
+        long postTime = 0;
+
+        long locking = System.nanoTime();
+        boolean ready = false;
+        try {
+            layout(world);
+            ready = renderer.beginFrame();
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+            renderer.release();
+            renderer = gameView.fallBackToCanvas();
+            layoutWidth = 0;
+        }
+        try {
+            long locked = System.nanoTime();
+            lockTime = locked - locking;
+            if (ready) {
+                float alpha = (frameTimeNanos - world.getTickTimeNanos()) / (float) TICK_NANOS;
+                alpha = alpha < 0 ? 0 : (alpha > 1 ? 1 : alpha);
+                renderer.drawFrame(world, alpha, gameView.getOverlayStats());
+                drawTime = System.nanoTime() - locked;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            if (ready) {
+                long posting = System.nanoTime();
+                try {
+                    renderer.endFrame();
+                } catch (Exception e) {
+                    e.printStackTrace();
                 }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+                postTime = System.nanoTime() - posting;
             }
         }
+
+        if (!ready) {
+            pacer.requestFrame();
+            return;
+        }
+        if (lastDrawnVsync != 0) {
+            stats.setFramePeriodNanos(pacer.getFrameIntervalNanos(idle));
+            stats.recordFrame(world.getUpdateNanos(), drawTime, lockTime, postTime, lateness,
+                    frameTimeNanos - lastDrawnVsync);
+        }
+        lastDrawnVsync = frameTimeNanos;
+    }
+
+    /**
+     * Fits the maze to the surface with square tiles of at least
+     * {@link #MIN_BLOCK_SIZE} pixels, centred, whenever either changed size.
+     */
+    private void layout(WorldSnapshot world) {
+        int width = gameView.getSurfaceWidth();
+        int height = gameView.getSurfaceHeight();
+        int columns = world.getWidthInBlocks();
+        int rows = world.getHeightInBlocks();
+        if (width == layoutWidth && height == layoutHeight && columns == layoutColumns && rows == layoutRows) {
+            return;
+        }
+        layoutWidth = width;
+        layoutHeight = height;
+        layoutColumns = columns;
+        layoutRows = rows;
+        int blockSize = Math.max(MIN_BLOCK_SIZE, Math.min(width / columns, height / rows));
+        renderer.layout(width, height, blockSize, (width - columns * blockSize) / 2, (height - rows * blockSize) / 2);
     }
-}
\ No newline at end of file
+}
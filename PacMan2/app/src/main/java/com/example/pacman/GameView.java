@@ -1,35 +1,61 @@
 package com.example.pacman;
 
 import android.content.Context;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
 import android.util.AttributeSet;
 import android.view.GestureDetector;
+import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 import android.view.View;
-import java.util.ArrayList;
-import java.util.Random;
-
+import com.example.pacman.engine.GameEngine;
+import com.example.pacman.engine.InputQueue;
+import com.example.pacman.engine.Level;
+import com.example.pacman.engine.LevelPack;
+import com.example.pacman.engine.LevelPreloader;
+import com.example.pacman.engine.SavedGame;
+import com.example.pacman.engine.SnapshotBuffer;
+import com.example.pacman.engine.WorldSnapshot;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hosts the game on a surface. The engine is ticked only on the
+ * {@link SimulationThread} and drawn only by the {@link GameThread}, from the
+ * snapshots the simulation publishes. The UI thread never touches either:
+ * turns go through an {@link InputQueue}, and the render thread fits the
+ * maze to the surface size at its next frame. The simulation never sees
+ * the screen size.
+ */
 public class GameView extends SurfaceView implements SurfaceHolder.Callback {
+    private static final String LEVEL_PACK = "levels/pack.txt";
+    private static final String SAVE_FILE = "game.sav";
+
     private GameThread gameThread;
-    private int[][] map;
-    private int blockSize;
-    private int widthInBlocks = 19;
-    private int heightInBlocks = 22;
-    private Pacman pacman;
-    private ArrayList<Ghost> ghosts;
-    private int score = 0;
-    private int dotsLeft = 0;
+    private SimulationThread simulationThread;
+    private GameEngine engine;
+    private SnapshotBuffer snapshots;
+    private LevelPreloader levels;
+    private volatile int surfaceWidth, surfaceHeight;
     private GestureDetector gestureDetector;
-    private Random random = new Random();
-    private boolean gameRunning = true;
-    private int lives = 3;
-    private Paint scorePaint, lifePaint;
-    private long gameOverTime = 0;
-    private int offsetX, offsetY;
+    private volatile Renderer renderer;
+    private CanvasRenderer canvasRenderer;
+    private final FrameStats frameStats = new FrameStats();
+    private volatile boolean overlayEnabled;
+    private final InputQueue input = new InputQueue();
+    private float refreshRate = 60;
+    private int targetFrameRate = FramePacer.RATE_NATIVE;
+    private byte[] savedState;
+    private final ExecutorService saver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "GameSaver");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public GameView(Context context) {
         super(context);
@@ -45,8 +71,9 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
         getHolder().addCallback(this);
         setFocusable(true);
 
-        createMap();
-
+        engine = createEngine(context);
+        snapshots = new SnapshotBuffer(engine);
+        renderer = new GlRenderer(getHolder());
         gestureDetector = new GestureDetector(context, new GestureListener());
         setOnTouchListener(new OnTouchListener() {
             @Override
@@ -56,283 +83,285 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
         });
     }
 
-    private void createMap() {
-        int[][] levelMap = {
-                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
-                {1,2,2,2,2,2,2,2,2,1,2,2,2,2,2,2,2,2,1},
-                {1,3,1,1,2,1,1,1,2,1,2,1,1,1,2,1,1,3,1},
-                {1,2,1,1,2,1,1,1,2,1,2,1,1,1,2,1,1,2,1},
-                {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
-                {1,2,1,1,2,1,2,1,1,1,1,1,2,1,2,1,1,2,1},
-                {1,2,2,2,2,1,2,2,2,1,2,2,2,1,2,2,2,2,1},
-                {1,1,1,1,2,1,1,1,0,1,0,1,1,1,2,1,1,1,1},
-                {0,0,0,1,2,1,0,0,0,0,0,0,0,1,2,1,0,0,0},
-                {1,1,1,1,2,1,0,1,1,4,1,1,0,1,2,1,1,1,1},
-                {0,0,0,0,2,0,0,1,0,0,0,1,0,0,2,0,0,0,0},
-                {1,1,1,1,2,1,0,1,1,1,1,1,0,1,2,1,1,1,1},
-                {0,0,0,1,2,1,0,0,0,0,0,0,0,1,2,1,0,0,0},
-                {1,1,1,1,2,1,0,1,1,1,1,1,0,1,2,1,1,1,1},
-                {1,2,2,2,2,2,2,2,2,1,2,2,2,2,2,2,2,2,1},
-                {1,2,1,1,2,1,1,1,2,1,2,1,1,1,2,1,1,2,1},
-                {1,3,2,1,2,2,2,2,2,2,2,2,2,2,2,1,2,3,1},
-                {1,1,2,1,2,1,2,1,1,1,1,1,2,1,2,1,2,1,1},
-                {1,2,2,2,2,1,2,2,2,1,2,2,2,1,2,2,2,2,1},
-                {1,2,1,1,1,1,1,1,2,1,2,1,1,1,1,1,1,2,1},
-                {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
-                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
-        };
-
-        map = new int[widthInBlocks][heightInBlocks];
-        dotsLeft = 0;
-
-        for (int x = 0; x < widthInBlocks; x++) {
-            for (int y = 0; y < heightInBlocks; y++) {
-                map[x][y] = levelMap[y][x];
-                if (map[x][y] == 2 || map[x][y] == 3) {
-                    dotsLeft++;
-                }
+    /**
+     * Starts on the first maze of the bundled level pack and preloads the
+     * rest one level ahead. Falls back to the built-in maze if the pack
+     * cannot be read.
+     */
+    private GameEngine createEngine(Context context) {
+        try {
+            LevelPreloader preloader = new LevelPreloader(LevelPack.open(context.getAssets().open(LEVEL_PACK)));
+            Level first = preloader.nextLevel();
+            if (first != null) {
+                GameEngine packEngine = new GameEngine(first, 4, System.nanoTime());
+                packEngine.setLevelSource(preloader);
+                levels = preloader;
+                return packEngine;
+            }
+            if (preloader.getError() != null) {
+                preloader.getError().printStackTrace();
             }
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-
-        scorePaint = new Paint();
-        scorePaint.setColor(Color.WHITE);
-        scorePaint.setTextSize(40);
-        scorePaint.setAntiAlias(true);
-
-        lifePaint = new Paint();
-        lifePaint.setColor(Color.YELLOW);
-        lifePaint.setAntiAlias(true);
+        return new GameEngine();
     }
 
     @Override
     public void surfaceCreated(SurfaceHolder holder) {
         if (gameThread == null) {
-            gameThread = new GameThread(getHolder(), this);
-            gameThread.setRunning(true);
-            gameThread.start();
+            startGameThread();
         }
     }
 
     @Override
     public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
-        blockSize = Math.min(width / widthInBlocks, height / heightInBlocks);
-        if (blockSize < 20) blockSize = 20;
-
-        offsetX = (width - widthInBlocks * blockSize) / 2;
-        offsetY = (height - heightInBlocks * blockSize) / 2;
+        surfaceWidth = width;
+        surfaceHeight = height;
 
-        pacman = new Pacman(9, 16, blockSize);
-        ghosts = new ArrayList<>();
-        ghosts.add(new Ghost(9, 10, Color.RED, "Blinky", blockSize));
-        ghosts.add(new Ghost(8, 10, Color.MAGENTA, "Pinky", blockSize));
-        ghosts.add(new Ghost(10, 10, Color.CYAN, "Inky", blockSize));
-        ghosts.add(new Ghost(9, 11, Color.rgb(255, 165, 0), "Clyde", blockSize));
-    }
-
-    @Override
-    public void surfaceDestroyed(SurfaceHolder holder) {
-        pauseGame();
-    }
-
-    public void update() {
-        if (!gameRunning) {
-            if (gameOverTime > 0 && System.currentTimeMillis() - gameOverTime > 5000) {
-                restartGame();
-            }
-            return;
-        }
-
-        pacman.update(this);
-
-        if (map[pacman.getX()][pacman.getY()] == 2) {
-            map[pacman.getX()][pacman.getY()] = 0;
-            score += 10;
-            dotsLeft--;
-        } else if (map[pacman.getX()][pacman.getY()] == 3) {
-            map[pacman.getX()][pacman.getY()] = 0;
-            score += 50;
-            dotsLeft--;
-            for (Ghost ghost : ghosts) {
-                ghost.scare();
+        if (getDisplay() != null) {
+            refreshRate = getDisplay().getRefreshRate();
+            if (gameThread != null) {
+                gameThread.setRefreshRate(refreshRate);
             }
         }
+    }
 
-        for (Ghost ghost : ghosts) {
-            ghost.update(this);
+    private void startGameThread() {
+        simulationThread = new SimulationThread(this);
+        simulationThread.setRunning(true);
+        simulationThread.start();
 
-            if (Math.abs(pacman.getX() - ghost.getX()) < 1 &&
-                    Math.abs(pacman.getY() - ghost.getY()) < 1) {
-                if (ghost.isScared()) {
-                    score += 200;
-                    ghost.reset();
-                } else {
-                    lives--;
-                    if (lives <= 0) {
-                        gameOver();
-                    } else {
-                        resetGameObjects();
-                    }
-                }
-            }
-        }
-
-        if (dotsLeft <= 0) {
-            nextLevel();
-        }
+        gameThread = new GameThread(renderer, this);
+        gameThread.setRefreshRate(refreshRate);
+        gameThread.setTargetFrameRate(targetFrameRate);
+        gameThread.setRunning(true);
+        gameThread.start();
     }
 
-    private void resetGameObjects() {
-        pacman.reset();
-        for (Ghost ghost : ghosts) {
-            ghost.reset();
+    /**
+     * Frames per second to draw: 30, 60, or {@link FramePacer#RATE_NATIVE}
+     * for the display's refresh rate. The game itself always ticks at
+     * {@link GameEngine#TICKS_PER_SECOND}.
+     */
+    public void setTargetFrameRate(int framesPerSecond) {
+        targetFrameRate = framesPerSecond;
+        if (gameThread != null) {
+            gameThread.setTargetFrameRate(framesPerSecond);
         }
     }
 
-    private void restartGame() {
-        score = 0;
-        lives = 3;
-        gameRunning = true;
-        gameOverTime = 0;
-        createMap();
-        resetGameObjects();
+    /**
+     * Swaps in the Canvas backend after the GL one failed to start. Called on
+     * the render thread, which lays out and draws with the returned renderer
+     * from then on.
+     */
+    Renderer fallBackToCanvas() {
+        renderer = canvasRenderer();
+        return renderer;
     }
 
-    private void nextLevel() {
-        lives++;
-        createMap();
-        resetGameObjects();
+    private CanvasRenderer canvasRenderer() {
+        if (canvasRenderer == null) {
+            canvasRenderer = new CanvasRenderer(getHolder());
+        }
+        return canvasRenderer;
     }
 
-    private void gameOver() {
-        gameRunning = false;
-        gameOverTime = System.currentTimeMillis();
+    /**
+     * Draws with the Canvas backend, repainting only what changed each frame,
+     * instead of redrawing everything with OpenGL. Saves power on devices
+     * that show the game all day. Takes effect when the game thread next
+     * starts, so call it before the surface is created or while paused.
+     */
+    public void setIncrementalRendering(boolean enabled) {
+        if (enabled) {
+            CanvasRenderer incremental = canvasRenderer();
+            incremental.setIncremental(true);
+            renderer = incremental;
+        } else {
+            if (canvasRenderer != null) {
+                canvasRenderer.setIncremental(false);
+            }
+            renderer = new GlRenderer(getHolder());
+        }
     }
 
     @Override
-    public void draw(Canvas canvas) {
-        super.draw(canvas);
-        if (canvas == null) return;
-
-        canvas.drawColor(Color.BLACK);
-
-        drawMap(canvas);
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        pauseGame();
+    }
 
-        for (Ghost ghost : ghosts) {
-            ghost.draw(canvas, offsetX, offsetY);
+    /**
+     * One simulation tick at {@code tickTimeNanos}, after the turns issued up
+     * to then, and publishes the result for the render thread.
+     */
+    public void update(long tickTimeNanos) {
+        long start = System.nanoTime();
+        input.drainTo(engine, tickTimeNanos);
+        engine.tick();
+
+        WorldSnapshot world = snapshots.getBack();
+        world.capture(engine);
+        world.setTiming(tickTimeNanos, System.nanoTime() - start);
+        snapshots.publish();
+
+        long issued = engine.getAppliedTurnTime();
+        if (issued != 0) {
+            frameStats.recordInputLatency(System.nanoTime() - issued);
         }
+    }
 
-        pacman.draw(canvas, offsetX, offsetY);
-
-        drawUI(canvas);
-    }
-
-    private void drawMap(Canvas canvas) {
-        if (blockSize == 0) return;
-
-        Paint wallPaint = new Paint();
-        wallPaint.setColor(Color.BLUE);
-        wallPaint.setStyle(Paint.Style.FILL);
-
-        Paint dotPaint = new Paint();
-        dotPaint.setColor(Color.WHITE);
-        dotPaint.setAntiAlias(true);
-
-        Paint superDotPaint = new Paint();
-        superDotPaint.setColor(Color.YELLOW);
-        superDotPaint.setAntiAlias(true);
-
-        Paint gatePaint = new Paint();
-        gatePaint.setColor(Color.GRAY);
-
-        for (int x = 0; x < widthInBlocks; x++) {
-            for (int y = 0; y < heightInBlocks; y++) {
-                int left = offsetX + x * blockSize;
-                int top = offsetY + y * blockSize;
-
-                switch (map[x][y]) {
-                    case 1:
-                        canvas.drawRect(left, top, left + blockSize, top + blockSize, wallPaint);
-                        break;
-                    case 2:
-                        canvas.drawCircle(
-                                left + blockSize / 2,
-                                top + blockSize / 2,
-                                blockSize / 8,
-                                dotPaint
-                        );
-                        break;
-                    case 3:
-                        canvas.drawCircle(
-                                left + blockSize / 2,
-                                top + blockSize / 2,
-                                blockSize / 4,
-                                superDotPaint
-                        );
-                        break;
-                    case 4:
-                        canvas.drawRect(left, top, left + blockSize, top + blockSize, gatePaint);
-                        break;
-                }
-            }
-        }
+    SnapshotBuffer getSnapshots() {
+        return snapshots;
     }
 
-    private void drawUI(Canvas canvas) {
-        canvas.drawText("Счет: " + score, 20, 50, scorePaint);
-        canvas.drawText("Жизни: " + lives, getWidth() - 200, 50, scorePaint);
+    int getSurfaceWidth() {
+        return surfaceWidth;
+    }
 
-        if (!gameRunning && gameOverTime > 0) {
-            Paint gameOverPaint = new Paint();
-            gameOverPaint.setColor(Color.RED);
-            gameOverPaint.setTextSize(60);
-            gameOverPaint.setTextAlign(Paint.Align.CENTER);
-            gameOverPaint.setAntiAlias(true);
-            canvas.drawText("ИГРА ОКОНЧЕНА", getWidth() / 2, getHeight() / 2, gameOverPaint);
-            canvas.drawText("Новая игра через: " + (5 - (System.currentTimeMillis() - gameOverTime) / 1000) + " сек",
-                    getWidth() / 2, getHeight() / 2 + 70, gameOverPaint);
-        }
+    int getSurfaceHeight() {
+        return surfaceHeight;
     }
 
-    public boolean isWall(int x, int y) {
-        if (x < 0 || y < 0 || x >= widthInBlocks || y >= heightInBlocks) {
-            return false;
+    /** Turns from touch and keys, written on the UI thread and drained by the simulation thread. */
+    public InputQueue getInput() {
+        return input;
+    }
+
+    /**
+     * Also steers with a D-pad or the arrow and WASD keys. Keys arrive on the
+     * UI thread like touch, so the queue keeps a single producer.
+     */
+    public void setKeyInputEnabled(boolean enabled) {
+        setFocusableInTouchMode(enabled);
+        setOnKeyListener(enabled ? new KeyListener() : null);
+        if (enabled) {
+            requestFocus();
         }
-        return map[x][y] == 1;
     }
 
-    public int getBlockSize() {
-        return blockSize;
+    public FrameStats getFrameStats() {
+        return frameStats;
     }
 
-    public int getWidthInBlocks() {
-        return widthInBlocks;
+    /** Frame stats while the performance overlay is shown, otherwise null. */
+    FrameStats getOverlayStats() {
+        return overlayEnabled ? frameStats : null;
     }
 
-    public int getHeightInBlocks() {
-        return heightInBlocks;
+    /** Shows frame timing percentiles over the game; also toggled by a double tap. */
+    public void setPerformanceOverlayEnabled(boolean enabled) {
+        overlayEnabled = enabled;
     }
 
-    public Pacman getPacman() {
-        return pacman;
+    public GameEngine getEngine() {
+        return engine;
     }
 
     public void pauseGame() {
         if (gameThread != null) {
             gameThread.setRunning(false);
+            simulationThread.setRunning(false);
             try {
                 gameThread.join();
+                simulationThread.join();
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
             gameThread = null;
+            simulationThread = null;
+            save();
+        }
+    }
+
+    /** Snapshots the stopped game and writes it to the save file in the background. */
+    private void save() {
+        byte[] state = SavedGame.write(engine);
+        savedState = state;
+        File dir = getContext().getFilesDir();
+        saver.execute(() -> writeSaveFile(dir, state));
+    }
+
+    private static void writeSaveFile(File dir, byte[] state) {
+        File temp = new File(dir, SAVE_FILE + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(state);
+            out.getFD().sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (!temp.renameTo(new File(dir, SAVE_FILE))) {
+            temp.delete();
+        }
+    }
+
+    private byte[] readSaveFile() {
+        File file = new File(getContext().getFilesDir(), SAVE_FILE);
+        if (!file.isFile()) return null;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            byte[] state = new byte[(int) file.length()];
+            in.readFully(state);
+            return state;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * The whole game as a {@link SavedGame} snapshot, for
+     * {@code onSaveInstanceState}. Pauses the game first if it is running;
+     * {@link #resumeGame()} carries on.
+     */
+    public byte[] saveState() {
+        pauseGame();
+        if (savedState == null) {
+            savedState = SavedGame.write(engine);
+        }
+        return savedState;
+    }
+
+    /**
+     * Continues a game from {@link #saveState()}, or from the save file when
+     * {@code state} is null, e.g. after the process was killed. Must be
+     * called before the game starts; an unreadable snapshot is ignored.
+     */
+    public void restoreState(byte[] state) {
+        if (gameThread != null) {
+            throw new IllegalStateException("Game already running");
+        }
+        if (state == null) {
+            state = readSaveFile();
+            if (state == null) return;
+        }
+
+        int mazes = engine.getMazesLoaded();
+        try {
+            SavedGame.restore(engine, state);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (levels != null) {
+            levels.skip(engine.getMazesLoaded() - mazes);
+        }
+        snapshots = new SnapshotBuffer(engine);
+        savedState = state;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (levels != null) {
+            levels.close();
         }
     }
 
     public void resumeGame() {
         if (gameThread == null) {
-            gameThread = new GameThread(getHolder(), this);
-            gameThread.setRunning(true);
-            gameThread.start();
+            startGameThread();
         }
     }
 
@@ -342,25 +371,53 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
             float diffX = e2.getX() - e1.getX();
             float diffY = e2.getY() - e1.getY();
 
+            long now = System.nanoTime();
             if (Math.abs(diffX) > Math.abs(diffY)) {
                 if (diffX > 0) {
-                    pacman.setNextDirection(0);
+                    input.offer(0, now);
                 } else {
-                    pacman.setNextDirection(2);
+                    input.offer(2, now);
                 }
             } else {
                 if (diffY > 0) {
-                    pacman.setNextDirection(1);
+                    input.offer(1, now);
                 } else {
-                    pacman.setNextDirection(3);
+                    input.offer(3, now);
                 }
             }
             return true;
         }
 
+        @Override
+        public boolean onDoubleTap(MotionEvent e) {
+            overlayEnabled = !overlayEnabled;
+            return true;
+        }
+
         @Override
         public boolean onDown(MotionEvent e) {
             return true;
         }
     }
-}
\ No newline at end of file
+
+    private class KeyListener implements OnKeyListener {
+        @Override
+        public boolean onKey(View v, int keyCode, KeyEvent event) {
+            if (event.getAction() != KeyEvent.ACTION_DOWN) {
+                return false;
+            }
+            int direction;
+            switch (keyCode) {
+                case KeyEvent.KEYCODE_DPAD_RIGHT: case KeyEvent.KEYCODE_D: direction = 0; break;
+                case KeyEvent.KEYCODE_DPAD_DOWN: case KeyEvent.KEYCODE_S: direction = 1; break;
+                case KeyEvent.KEYCODE_DPAD_LEFT: case KeyEvent.KEYCODE_A: direction = 2; break;
+                case KeyEvent.KEYCODE_DPAD_UP: case KeyEvent.KEYCODE_W: direction = 3; break;
+                default: return false;
+            }
+            if (event.getRepeatCount() == 0) {
+                input.offer(direction, System.nanoTime());
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.pacman;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import com.example.pacman.engine.WorldSnapshot;
+
+/**
+ * Vector drawing of a ghost. {@link SpriteAtlas} uses it to render its
+ * frames; frames it cannot hold are drawn directly.
+ */
+public class GhostPainter {
+    private final Paint paint = new Paint();
+    private final Path body = new Path();
+
+    public GhostPainter() {
+        paint.setAntiAlias(true);
+    }
+
+    public void draw(Canvas canvas, WorldSnapshot world, int ghost, int blockSize, int offsetX, int offsetY,
+            float alpha) {
+        float left = offsetX + world.getGhostRenderX(ghost, alpha, blockSize);
+        float top = offsetY + world.getGhostRenderY(ghost, alpha, blockSize);
+
+        if (!world.isGhostEaten(ghost)) {
+            drawBody(canvas, left, top, blockSize,
+                    world.isGhostScared(ghost) ? Color.BLUE : world.getGhostColor(ghost),
+                    world.getGhostWaveOffset(ghost));
+        }
+        drawEyes(canvas, left, top, blockSize, world.getGhostDirection(ghost));
+    }
+
+    /** Body of a ghost whose cell has its top-left corner at {@code (left, top)}. */
+    public void drawBody(Canvas canvas, float left, float top, int blockSize, int color, float waveOffset) {
+        paint.setColor(color);
+
+        int size = blockSize - 4;
+        float centerX = left + blockSize/2;
+        float centerY = top + blockSize/2;
+        float radius = size/2;
+
+        canvas.drawCircle(centerX, centerY, radius, paint);
+
+        body.rewind();
+        body.moveTo(left, centerY);
+
+        int waveCount = 4;
+        float waveWidth = size / (float)waveCount;
+        float waveHeight = size / 10f;
+
+        for (int i = 0; i <= waveCount; i++) {
+            float xPos = left + i * waveWidth;
+            float yOffset = (float)Math.sin(waveOffset + i * Math.PI) * waveHeight;
+            float yPos = top + size - waveHeight + yOffset;
+
+            if (i == 0) body.moveTo(xPos, yPos);
+            else body.lineTo(xPos, yPos);
+        }
+
+        body.lineTo(left + size, centerY);
+        body.close();
+
+        canvas.drawPath(body, paint);
+    }
+
+    /** Eyes looking in {@code direction}, for the cell at {@code (left, top)}. */
+    public void drawEyes(Canvas canvas, float left, float top, int blockSize, int direction) {
+        int size = blockSize - 4;
+        float centerX = left + blockSize/2;
+        float centerY = top + blockSize/2;
+
+        paint.setColor(Color.WHITE);
+        int eyeSize = size / 4;
+        int eyeY = (int)(centerY - size/8);
+
+        canvas.drawCircle(centerX - size/4, eyeY, eyeSize, paint);
+        canvas.drawCircle(centerX + size/4, eyeY, eyeSize, paint);
+
+        paint.setColor(Color.BLUE);
+        int pupilSize = size / 8;
+
+        float pupilX1 = centerX - size/4;
+        float pupilX2 = centerX + size/4;
+        float pupilY = eyeY;
+
+        switch (direction) {
+            case 0: pupilX1 += size/12; pupilX2 += size/12; break;
+            case 1: pupilY += size/12; break;
+            case 2: pupilX1 -= size/12; pupilX2 -= size/12; break;
+            case 3: pupilY -= size/12; break;
+        }
+
+        canvas.drawCircle(pupilX1, pupilY, pupilSize, paint);
+        canvas.drawCircle(pupilX2, pupilY, pupilSize, paint);
+    }
+}
@@ -0,0 +1,378 @@
+package com.example.pacman;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.opengl.EGL14;
+import android.opengl.EGLConfig;
+import android.opengl.EGLContext;
+import android.opengl.EGLDisplay;
+import android.opengl.EGLSurface;
+import android.opengl.GLES20;
+import android.opengl.GLUtils;
+import android.view.SurfaceHolder;
+import com.example.pacman.engine.WorldSnapshot;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * OpenGL ES 2.0 backend. The whole frame, walls included, goes through one
+ * {@link SpriteBatch} and one shader program, so the classic maze is a
+ * single draw call however many actors there are. The HUD and performance
+ * overlay are drawn with the Canvas painters into small bitmaps, one per
+ * {@link HudStrips} strip, and each is uploaded into its rows of the HUD
+ * texture only when its own text changes.
+ *
+ * <p>The EGL context is created on the render thread at the first frame and
+ * destroyed by {@link #release()} when that thread stops, so everything here
+ * runs on the render thread.
+ */
+public class GlRenderer implements Renderer, SpriteBatch.Sink {
+    private static final String VERTEX_SHADER =
+            "uniform vec2 uScreen;\n"
+            + "attribute vec2 aPosition;\n"
+            + "attribute vec2 aLocal;\n"
+            + "attribute vec4 aColor;\n"
+            + "attribute vec3 aShape;\n"
+            + "varying vec2 vLocal;\n"
+            + "varying vec4 vColor;\n"
+            + "varying vec3 vShape;\n"
+            + "void main() {\n"
+            + "  vLocal = aLocal;\n"
+            + "  vColor = aColor;\n"
+            + "  vShape = aShape;\n"
+            + "  gl_Position = vec4(aPosition.x / uScreen.x * 2.0 - 1.0, 1.0 - aPosition.y / uScreen.y * 2.0, 0.0, 1.0);\n"
+            + "}\n";
+
+    private static final String FRAGMENT_SHADER =
+            "precision mediump float;\n"
+            + "uniform sampler2D uHud;\n"
+            + "varying vec2 vLocal;\n"
+            + "varying vec4 vColor;\n"
+            + "varying vec3 vShape;\n"
+            + "void main() {\n"
+            + "  vec2 p = vLocal;\n"
+            + "  float shape = vShape.x;\n"
+            + "  if (shape > 3.5) {\n"
+            + "    gl_FragColor = texture2D(uHud, p * 0.5 + 0.5);\n"
+            + "    return;\n"
+            + "  }\n"
+            + "  if (shape > 2.5) {\n"
+            + "    if (p.y < 0.0 ? dot(p, p) > 1.0 : p.y > 0.8 + 0.2 * sin(vShape.y + (p.x + 1.0) * 6.2831853)) discard;\n"
+            + "  } else if (shape > 0.5) {\n"
+            + "    if (dot(p, p) > 1.0) discard;\n"
+            + "    if (shape > 1.5) {\n"
+            + "      float a = abs(mod(atan(p.y, p.x) - vShape.y + 3.1415927, 6.2831853) - 3.1415927);\n"
+            + "      if (a < vShape.z) discard;\n"
+            + "    }\n"
+            + "  }\n"
+            + "  gl_FragColor = vec4(vColor.rgb * vColor.a, vColor.a);\n"
+            + "}\n";
+
+    private final SurfaceHolder holder;
+    private final SpriteScene scene = new SpriteScene();
+    private final SpriteBatch batch = new SpriteBatch();
+    private final FloatBuffer vertexData = ByteBuffer
+            .allocateDirect(SpriteBatch.MAX_QUADS * SpriteBatch.FLOATS_PER_QUAD * 4)
+            .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    private final HudPainter hudPainter = new HudPainter();
+    private final PerformanceOverlay performanceOverlay = new PerformanceOverlay();
+    private final int[] ids = new int[2];
+
+    private EGLDisplay display = EGL14.EGL_NO_DISPLAY;
+    private EGLContext context = EGL14.EGL_NO_CONTEXT;
+    private EGLSurface surface = EGL14.EGL_NO_SURFACE;
+    private int program;
+    private int screenUniform;
+    private int vertexBuffer;
+    private int indexBuffer;
+    private int hudTexture;
+    private final HudStrips strips = new HudStrips();
+    private final Bitmap[] hudBitmaps = new Bitmap[HudStrips.STRIPS];
+    private final Canvas[] hudCanvases = new Canvas[HudStrips.STRIPS];
+    private final boolean[] hudDirty = new boolean[HudStrips.STRIPS];
+    private int hudScore = -1, hudLives = -1, hudCountdown = -1;
+    private boolean hudRunning, hudOverlay;
+    private boolean layoutChanged;
+    private int width, height;
+
+    public GlRenderer(SurfaceHolder holder) {
+        this.holder = holder;
+    }
+
+    @Override
+    public void layout(int width, int height, int blockSize, int offsetX, int offsetY) {
+        scene.layout(width, height, blockSize, offsetX, offsetY);
+        layoutChanged = true;
+    }
+
+    /**
+     * Sets up EGL on first use. Throws {@link IllegalStateException} if the
+     * device cannot give an ES 2.0 context for the surface.
+     */
+    @Override
+    public boolean beginFrame() {
+        if (!holder.getSurface().isValid()) {
+            return false;
+        }
+        if (display == EGL14.EGL_NO_DISPLAY) {
+            createContext();
+            createProgram();
+            layoutChanged = true;
+        }
+        if (layoutChanged) {
+            layoutChanged = false;
+            applyLayout();
+        }
+        return hudBitmaps[HudStrips.TOP_BAR] != null;
+    }
+
+    @Override
+    public void drawFrame(WorldSnapshot world, float alpha, FrameStats stats) {
+        updateHud(world, stats);
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+        batch.begin(this);
+        scene.build(batch, world, alpha);
+        strips.addVisible(batch, world.isGameRunning(), stats != null);
+        batch.end();
+    }
+
+    @Override
+    public void draw(float[] vertices, int quads) {
+        int floats = quads * SpriteBatch.FLOATS_PER_QUAD;
+        vertexData.clear();
+        vertexData.put(vertices, 0, floats);
+        vertexData.position(0);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, vertexData.capacity() * 4, null, GLES20.GL_STREAM_DRAW);
+        GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, floats * 4, vertexData);
+        GLES20.glDrawElements(GLES20.GL_TRIANGLES, quads * 6, GLES20.GL_UNSIGNED_SHORT, 0);
+    }
+
+    @Override
+    public void endFrame() {
+        EGL14.eglSwapBuffers(display, surface);
+    }
+
+    @Override
+    public void release() {
+        if (display == EGL14.EGL_NO_DISPLAY) return;
+
+        if (program != 0) {
+            ids[0] = vertexBuffer;
+            ids[1] = indexBuffer;
+            GLES20.glDeleteBuffers(2, ids, 0);
+            ids[0] = hudTexture;
+            GLES20.glDeleteTextures(1, ids, 0);
+            GLES20.glDeleteProgram(program);
+            program = 0;
+        }
+
+        EGL14.eglMakeCurrent(display, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_CONTEXT);
+        if (surface != EGL14.EGL_NO_SURFACE) {
+            EGL14.eglDestroySurface(display, surface);
+        }
+        if (context != EGL14.EGL_NO_CONTEXT) {
+            EGL14.eglDestroyContext(display, context);
+        }
+        EGL14.eglReleaseThread();
+        EGL14.eglTerminate(display);
+        display = EGL14.EGL_NO_DISPLAY;
+        context = EGL14.EGL_NO_CONTEXT;
+        surface = EGL14.EGL_NO_SURFACE;
+        recycleHudBitmaps();
+    }
+
+    private void recycleHudBitmaps() {
+        for (int i = 0; i < HudStrips.STRIPS; i++) {
+            if (hudBitmaps[i] != null) {
+                hudBitmaps[i].recycle();
+                hudBitmaps[i] = null;
+                hudCanvases[i] = null;
+            }
+        }
+    }
+
+    private void createContext() {
+        EGLDisplay found = EGL14.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+        if (found == EGL14.EGL_NO_DISPLAY) {
+            throw new IllegalStateException("eglGetDisplay failed: " + EGL14.eglGetError());
+        }
+        int[] version = new int[2];
+        if (!EGL14.eglInitialize(found, version, 0, version, 1)) {
+            throw new IllegalStateException("eglInitialize failed: " + EGL14.eglGetError());
+        }
+        display = found;
+
+        int[] attributes = {
+                EGL14.EGL_RENDERABLE_TYPE, EGL14.EGL_OPENGL_ES2_BIT,
+                EGL14.EGL_RED_SIZE, 8,
+                EGL14.EGL_GREEN_SIZE, 8,
+                EGL14.EGL_BLUE_SIZE, 8,
+                EGL14.EGL_NONE
+        };
+        EGLConfig[] configs = new EGLConfig[1];
+        int[] count = new int[1];
+        if (!EGL14.eglChooseConfig(display, attributes, 0, configs, 0, 1, count, 0) || count[0] == 0) {
+            failContext("No ES 2.0 config: ");
+        }
+
+        int[] contextAttributes = {EGL14.EGL_CONTEXT_CLIENT_VERSION, 2, EGL14.EGL_NONE};
+        context = EGL14.eglCreateContext(display, configs[0], EGL14.EGL_NO_CONTEXT, contextAttributes, 0);
+        if (context == EGL14.EGL_NO_CONTEXT) {
+            failContext("eglCreateContext failed: ");
+        }
+        surface = EGL14.eglCreateWindowSurface(display, configs[0], holder.getSurface(), new int[]{EGL14.EGL_NONE}, 0);
+        if (surface == EGL14.EGL_NO_SURFACE) {
+            failContext("eglCreateWindowSurface failed: ");
+        }
+        if (!EGL14.eglMakeCurrent(display, surface, surface, context)) {
+            failContext("Cannot make EGL context current: ");
+        }
+        EGL14.eglSwapInterval(display, 1);
+    }
+
+    /** Reads the error of the EGL call that just failed, then tears down what was created and throws. */
+    private void failContext(String message) {
+        int error = EGL14.eglGetError();
+        release();
+        throw new IllegalStateException(message + error);
+    }
+
+    private void createProgram() {
+        program = GLES20.glCreateProgram();
+        GLES20.glAttachShader(program, compile(GLES20.GL_VERTEX_SHADER, VERTEX_SHADER));
+        GLES20.glAttachShader(program, compile(GLES20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER));
+        GLES20.glLinkProgram(program);
+        int[] status = new int[1];
+        GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, status, 0);
+        if (status[0] == 0) {
+            throw new IllegalStateException("Link failed: " + GLES20.glGetProgramInfoLog(program));
+        }
+        GLES20.glUseProgram(program);
+        screenUniform = GLES20.glGetUniformLocation(program, "uScreen");
+        GLES20.glUniform1i(GLES20.glGetUniformLocation(program, "uHud"), 0);
+
+        GLES20.glGenBuffers(2, ids, 0);
+        vertexBuffer = ids[0];
+        indexBuffer = ids[1];
+
+        ShortBuffer indices = ByteBuffer.allocateDirect(SpriteBatch.MAX_QUADS * 6 * 2)
+                .order(ByteOrder.nativeOrder()).asShortBuffer();
+        for (int quad = 0; quad < SpriteBatch.MAX_QUADS; quad++) {
+            short first = (short) (quad * 4);
+            indices.put(first).put((short) (first + 1)).put((short) (first + 2))
+                    .put(first).put((short) (first + 2)).put((short) (first + 3));
+        }
+        indices.position(0);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+        GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, indices.capacity() * 2, indices, GLES20.GL_STATIC_DRAW);
+
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, vertexBuffer);
+        int stride = SpriteBatch.FLOATS_PER_VERTEX * 4;
+        attribute("aPosition", 2, stride, 0);
+        attribute("aLocal", 2, stride, 2 * 4);
+        attribute("aColor", 4, stride, 4 * 4);
+        attribute("aShape", 3, stride, 8 * 4);
+
+        GLES20.glGenTextures(1, ids, 0);
+        hudTexture = ids[0];
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, hudTexture);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_NEAREST);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_NEAREST);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+
+        GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        GLES20.glClearColor(0, 0, 0, 1);
+    }
+
+    private void attribute(String name, int size, int stride, int offset) {
+        int location = GLES20.glGetAttribLocation(program, name);
+        GLES20.glEnableVertexAttribArray(location);
+        GLES20.glVertexAttribPointer(location, size, GLES20.GL_FLOAT, false, stride, offset);
+    }
+
+    private static int compile(int type, String source) {
+        int shader = GLES20.glCreateShader(type);
+        GLES20.glShaderSource(shader, source);
+        GLES20.glCompileShader(shader);
+        int[] status = new int[1];
+        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, status, 0);
+        if (status[0] == 0) {
+            String log = GLES20.glGetShaderInfoLog(shader);
+            GLES20.glDeleteShader(shader);
+            throw new IllegalStateException("Shader compile failed: " + log);
+        }
+        return shader;
+    }
+
+    /** Resizes the viewport and lays the HUD strips out for the surface. */
+    private void applyLayout() {
+        width = scene.getWidth();
+        height = scene.getHeight();
+        if (width == 0 || height == 0) return;
+
+        GLES20.glViewport(0, 0, width, height);
+        GLES20.glUniform2f(screenUniform, width, height);
+
+        strips.layout(width, height);
+        if (hudBitmaps[HudStrips.TOP_BAR] == null || hudBitmaps[HudStrips.TOP_BAR].getWidth() != width) {
+            recycleHudBitmaps();
+            for (int i = 0; i < HudStrips.STRIPS; i++) {
+                hudBitmaps[i] = Bitmap.createBitmap(strips.getWidth(i), strips.getHeight(i), Bitmap.Config.ARGB_8888);
+                hudCanvases[i] = new Canvas(hudBitmaps[i]);
+            }
+            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, strips.getTextureWidth(),
+                    strips.getTextureHeight(), 0, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, null);
+        }
+        for (int i = 0; i < HudStrips.STRIPS; i++) {
+            hudDirty[i] = true;
+        }
+    }
+
+    /** Redraws and uploads each HUD strip whose text has changed, and nothing else. */
+    private void updateHud(WorldSnapshot world, FrameStats stats) {
+        boolean overlay = stats != null;
+        if (overlay && (performanceOverlay.update(stats, world) || !hudOverlay)) {
+            hudDirty[HudStrips.OVERLAY] = true;
+        }
+        hudOverlay = overlay;
+        if (world.getScore() != hudScore || world.getLives() != hudLives) {
+            hudScore = world.getScore();
+            hudLives = world.getLives();
+            hudDirty[HudStrips.TOP_BAR] = true;
+        }
+        int countdown = world.isGameRunning() ? -1 : world.getRestartSecondsLeft();
+        if (countdown != hudCountdown || world.isGameRunning() != hudRunning) {
+            hudCountdown = countdown;
+            hudRunning = world.isGameRunning();
+            hudDirty[HudStrips.MESSAGE] = true;
+        }
+
+        if (hudDirty[HudStrips.TOP_BAR]) {
+            hudBitmaps[HudStrips.TOP_BAR].eraseColor(Color.TRANSPARENT);
+            hudPainter.drawTopBar(hudCanvases[HudStrips.TOP_BAR], world, width);
+            upload(HudStrips.TOP_BAR);
+        }
+        if (hudDirty[HudStrips.MESSAGE] && !hudRunning) {
+            hudBitmaps[HudStrips.MESSAGE].eraseColor(Color.TRANSPARENT);
+            hudPainter.drawMessage(hudCanvases[HudStrips.MESSAGE], world, width, HudPainter.MESSAGE_ABOVE);
+            upload(HudStrips.MESSAGE);
+        }
+        if (hudDirty[HudStrips.OVERLAY] && overlay) {
+            hudBitmaps[HudStrips.OVERLAY].eraseColor(Color.TRANSPARENT);
+            performanceOverlay.drawLines(hudCanvases[HudStrips.OVERLAY], 0, 0);
+            upload(HudStrips.OVERLAY);
+        }
+    }
+
+    private void upload(int strip) {
+        hudDirty[strip] = false;
+        GLUtils.texSubImage2D(GLES20.GL_TEXTURE_2D, 0, 0, strips.getTextureTop(strip), hudBitmaps[strip]);
+    }
+}
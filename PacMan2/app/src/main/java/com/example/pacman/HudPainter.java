@@ -0,0 +1,66 @@
+package com.example.pacman;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import com.example.pacman.engine.WorldSnapshot;
+
+public class HudPainter {
+    /** Height of the score and lives bar at the top of the screen. */
+    public static final int TOP_BAR_HEIGHT = 64;
+    /** Extent of the game over message above and below the middle of the screen. */
+    public static final int MESSAGE_ABOVE = 64;
+    public static final int MESSAGE_BELOW = 90;
+
+    private final Paint scorePaint = new Paint();
+    private final Paint gameOverPaint = new Paint();
+    private final HudText scoreText = new HudText("Счет: ", "");
+    private final HudText livesText = new HudText("Жизни: ", "");
+    private final HudText countdownText = new HudText("Новая игра через: ", " сек");
+    private final char[] gameOverText = "ИГРА ОКОНЧЕНА".toCharArray();
+
+    public HudPainter() {
+        scorePaint.setColor(Color.WHITE);
+        scorePaint.setTextSize(40);
+        scorePaint.setAntiAlias(true);
+
+        gameOverPaint.setColor(Color.RED);
+        gameOverPaint.setTextSize(60);
+        gameOverPaint.setTextAlign(Paint.Align.CENTER);
+        gameOverPaint.setAntiAlias(true);
+    }
+
+    /** Area the score and lives lines cover. */
+    public void getTopBarBounds(Rect out, int width) {
+        out.set(0, 0, width, TOP_BAR_HEIGHT);
+    }
+
+    /** Area the game over message and countdown cover. */
+    public void getMessageBounds(Rect out, int width, int height) {
+        out.set(0, height / 2 - MESSAGE_ABOVE, width, height / 2 + MESSAGE_BELOW);
+    }
+
+    public void draw(Canvas canvas, WorldSnapshot world, int width, int height) {
+        drawTopBar(canvas, world, width);
+        if (!world.isGameRunning()) {
+            drawMessage(canvas, world, width, height / 2);
+        }
+    }
+
+    /** Score and lives, within {@link #TOP_BAR_HEIGHT} of the top of {@code canvas}. */
+    public void drawTopBar(Canvas canvas, WorldSnapshot world, int width) {
+        scoreText.set(world.getScore());
+        livesText.set(world.getLives());
+        canvas.drawText(scoreText.getChars(), 0, scoreText.length(), 20, 50, scorePaint);
+        canvas.drawText(livesText.getChars(), 0, livesText.length(), width - 200, 50, scorePaint);
+    }
+
+    /** Game over message and countdown, centred on {@code middle}. */
+    public void drawMessage(Canvas canvas, WorldSnapshot world, int width, int middle) {
+        countdownText.set(world.getRestartSecondsLeft());
+        canvas.drawText(gameOverText, 0, gameOverText.length, width / 2, middle, gameOverPaint);
+        canvas.drawText(countdownText.getChars(), 0, countdownText.length(),
+                width / 2, middle + 70, gameOverPaint);
+    }
+}
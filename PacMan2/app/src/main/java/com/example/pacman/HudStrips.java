@@ -0,0 +1,78 @@
+package com.example.pacman;
+
+/**
+ * Layout of the GL backend's HUD texture. Only the parts of the screen the
+ * HUD can draw on are kept in it: the score and lives bar, the game over
+ * message and the performance overlay, each in a strip of its own stacked
+ * from the top of the texture. A change then repaints and uploads one strip
+ * rather than a screen-sized bitmap, and each strip is drawn as its own
+ * {@link SpriteBatch#TEXTURE} quad.
+ */
+final class HudStrips {
+    static final int TOP_BAR = 0;
+    static final int MESSAGE = 1;
+    static final int OVERLAY = 2;
+    static final int STRIPS = 3;
+
+    /** Where the performance overlay sits on screen, as the Canvas backend draws it. */
+    static final int OVERLAY_LEFT = 20;
+    static final int OVERLAY_TOP = 80;
+
+    private final int[] left = new int[STRIPS];
+    private final int[] top = new int[STRIPS];
+    private final int[] width = new int[STRIPS];
+    private final int[] height = new int[STRIPS];
+    private final int[] textureTop = new int[STRIPS];
+    private int textureWidth;
+    private int textureHeight;
+
+    /** Places the strips for a {@code screenWidth} by {@code screenHeight} surface. */
+    void layout(int screenWidth, int screenHeight) {
+        set(TOP_BAR, 0, 0, screenWidth, HudPainter.TOP_BAR_HEIGHT);
+        set(MESSAGE, 0, screenHeight / 2 - HudPainter.MESSAGE_ABOVE, screenWidth,
+                HudPainter.MESSAGE_ABOVE + HudPainter.MESSAGE_BELOW);
+        set(OVERLAY, OVERLAY_LEFT, OVERLAY_TOP, PerformanceOverlay.WIDTH, PerformanceOverlay.HEIGHT);
+
+        textureWidth = 0;
+        textureHeight = 0;
+        for (int i = 0; i < STRIPS; i++) {
+            textureTop[i] = textureHeight;
+            textureHeight += height[i];
+            textureWidth = Math.max(textureWidth, width[i]);
+        }
+    }
+
+    private void set(int strip, int left, int top, int width, int height) {
+        this.left[strip] = left;
+        this.top[strip] = top;
+        this.width[strip] = width;
+        this.height[strip] = height;
+    }
+
+    /** Adds the quads for what the HUD shows: the top bar, and the message and overlay when they are up. */
+    void addVisible(SpriteBatch batch, boolean running, boolean overlay) {
+        add(batch, TOP_BAR);
+        if (!running) {
+            add(batch, MESSAGE);
+        }
+        if (overlay) {
+            add(batch, OVERLAY);
+        }
+    }
+
+    /** Adds the quad that shows {@code strip} at its place on screen. */
+    void add(SpriteBatch batch, int strip) {
+        float v0 = textureTop[strip] / (float) textureHeight;
+        float v1 = (textureTop[strip] + height[strip]) / (float) textureHeight;
+        float u1 = width[strip] / (float) textureWidth;
+        batch.addTexture(left[strip], top[strip], left[strip] + width[strip], top[strip] + height[strip],
+                0, v0, u1, v1);
+    }
+
+    int getWidth(int strip) { return width[strip]; }
+    int getHeight(int strip) { return height[strip]; }
+    /** Row of the texture the strip starts at; it always starts at column 0. */
+    int getTextureTop(int strip) { return textureTop[strip]; }
+    int getTextureWidth() { return textureWidth; }
+    int getTextureHeight() { return textureHeight; }
+}
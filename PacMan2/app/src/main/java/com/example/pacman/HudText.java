@@ -0,0 +1,64 @@
+package com.example.pacman;
+
+/**
+ * Fixed "prefix + number + suffix" label backed by a reusable char array.
+ * The characters are only rewritten when the number changes, so the HUD can
+ * be drawn every frame without building new strings.
+ */
+public class HudText {
+    private final char[] chars;
+    private final int prefixLength;
+    private final String suffix;
+    private int length;
+    private long value;
+    private boolean valid;
+
+    public HudText(String prefix, String suffix) {
+        this.prefixLength = prefix.length();
+        this.suffix = suffix;
+        this.chars = new char[prefixLength + 20 + suffix.length()];
+        prefix.getChars(0, prefixLength, chars, 0);
+    }
+
+    public void set(long newValue) {
+        if (valid && newValue == value) return;
+        value = newValue;
+        valid = true;
+
+        int pos = prefixLength;
+        long remaining = newValue;
+        if (remaining < 0) {
+            chars[pos++] = '-';
+        } else {
+            remaining = -remaining;
+        }
+
+        int digitsStart = pos;
+        do {
+            chars[pos++] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+
+        for (int i = digitsStart, j = pos - 1; i < j; i++, j--) {
+            char tmp = chars[i];
+            chars[i] = chars[j];
+            chars[j] = tmp;
+        }
+
+        suffix.getChars(0, suffix.length(), chars, pos);
+        length = pos + suffix.length();
+    }
+
+    public char[] getChars() {
+        return chars;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
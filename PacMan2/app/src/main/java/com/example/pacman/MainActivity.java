@@ -4,6 +4,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import android.os.Bundle;
 
 public class MainActivity extends AppCompatActivity {
+    private static final String STATE_GAME = "game";
+
     private GameView gameView;
 
     @Override
@@ -11,6 +13,16 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
         gameView = findViewById(R.id.gameView);
+        gameView.setKeyInputEnabled(true);
+        gameView.restoreState(savedInstanceState != null ? savedInstanceState.getByteArray(STATE_GAME) : null);
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (gameView != null) {
+            outState.putByteArray(STATE_GAME, gameView.saveState());
+        }
     }
 
     @Override
@@ -0,0 +1,154 @@
+package com.example.pacman;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import com.example.pacman.engine.DotIndex;
+import com.example.pacman.engine.GameListener;
+import com.example.pacman.engine.TileGrid;
+import com.example.pacman.engine.WorldSnapshot;
+
+/**
+ * Static part of the maze (walls and the ghost-house gate) rendered once into
+ * an off-screen bitmap. Dots are drawn from a {@link DotIndex} that
+ * {@link #sync} brings up to each snapshot, so a frame costs one bitmap
+ * blit and one circle per remaining dot. {@link #drawRegion} repaints just
+ * part of the maze for incremental rendering.
+ */
+public class MazeLayer implements GameListener {
+    private final GameListener changes;
+    private WorldSnapshot world;
+    private Bitmap walls;
+    private int blockSize;
+    private boolean wallsDirty;
+    private final DotIndex dots;
+    private final Paint wallPaint;
+    private final Paint dotPaint;
+    private final Paint superDotPaint;
+    private final Paint gatePaint;
+    private final Rect source = new Rect();
+    private final Rect target = new Rect();
+
+    /** {@code changes} hears about every eaten dot and reloaded maze that {@link #sync} finds. */
+    public MazeLayer(GameListener changes) {
+        this.changes = changes;
+        this.dots = new DotIndex();
+
+        wallPaint = new Paint();
+        wallPaint.setColor(Color.BLUE);
+        wallPaint.setStyle(Paint.Style.FILL);
+
+        dotPaint = new Paint();
+        dotPaint.setColor(Color.WHITE);
+        dotPaint.setAntiAlias(true);
+
+        superDotPaint = new Paint();
+        superDotPaint.setColor(Color.YELLOW);
+        superDotPaint.setAntiAlias(true);
+
+        gatePaint = new Paint();
+        gatePaint.setColor(Color.GRAY);
+    }
+
+    /** Catches up with {@code world}, redrawing the walls if needed; call before drawing it. */
+    public void sync(WorldSnapshot world) {
+        this.world = world;
+        dots.sync(world, this);
+        if (wallsDirty) {
+            wallsDirty = false;
+            buildWalls();
+        }
+    }
+
+    /** Redraws the walls at {@code blockSize} on the next {@link #sync}. */
+    public void rebuild(int blockSize) {
+        this.blockSize = blockSize;
+        wallsDirty = true;
+    }
+
+    private void buildWalls() {
+        if (blockSize <= 0) return;
+        int width = world.getWidthInBlocks();
+        int height = world.getHeightInBlocks();
+
+        if (walls != null) {
+            walls.recycle();
+        }
+        walls = Bitmap.createBitmap(width * blockSize, height * blockSize, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(walls);
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int left = x * blockSize;
+                int top = y * blockSize;
+
+                switch (world.getTile(x, y)) {
+                    case TileGrid.WALL:
+                        canvas.drawRect(left, top, left + blockSize, top + blockSize, wallPaint);
+                        break;
+                    case TileGrid.GATE:
+                        canvas.drawRect(left, top, left + blockSize, top + blockSize, gatePaint);
+                        break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onMapLoaded() {
+        wallsDirty = true;
+        changes.onMapLoaded();
+    }
+
+    @Override
+    public void onDotEaten(int x, int y) {
+        changes.onDotEaten(x, y);
+    }
+
+    public void draw(Canvas canvas, int offsetX, int offsetY) {
+        if (walls == null) return;
+
+        canvas.drawBitmap(walls, offsetX, offsetY, null);
+
+        int width = world.getWidthInBlocks();
+        for (int i = 0; i < dots.size(); i++) {
+            int cell = dots.get(i);
+            drawDot(canvas, cell % width, cell / width, offsetX, offsetY);
+        }
+    }
+
+    /** Repaints the walls and dots inside {@code region}, in surface pixels. */
+    public void drawRegion(Canvas canvas, int offsetX, int offsetY, Rect region) {
+        if (walls == null) return;
+
+        int left = Math.max(region.left - offsetX, 0);
+        int top = Math.max(region.top - offsetY, 0);
+        int right = Math.min(region.right - offsetX, world.getWidthInBlocks() * blockSize);
+        int bottom = Math.min(region.bottom - offsetY, world.getHeightInBlocks() * blockSize);
+        if (left >= right || top >= bottom) return;
+
+        source.set(left, top, right, bottom);
+        target.set(left + offsetX, top + offsetY, right + offsetX, bottom + offsetY);
+        canvas.drawBitmap(walls, source, target, null);
+
+        for (int y = top / blockSize; y <= (bottom - 1) / blockSize; y++) {
+            for (int x = left / blockSize; x <= (right - 1) / blockSize; x++) {
+                drawDot(canvas, x, y, offsetX, offsetY);
+            }
+        }
+    }
+
+    private void drawDot(Canvas canvas, int x, int y, int offsetX, int offsetY) {
+        int tile = world.getTile(x, y);
+        float centerX = offsetX + x * blockSize + blockSize / 2;
+        float centerY = offsetY + y * blockSize + blockSize / 2;
+
+        if (tile == TileGrid.POWER_DOT) {
+            canvas.drawCircle(centerX, centerY, blockSize / 4, superDotPaint);
+        } else if (tile == TileGrid.DOT) {
+            canvas.drawCircle(centerX, centerY, blockSize / 8, dotPaint);
+        }
+    }
+}
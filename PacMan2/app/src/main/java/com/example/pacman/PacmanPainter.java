@@ -0,0 +1,55 @@
+package com.example.pacman;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import com.example.pacman.engine.WorldSnapshot;
+
+/**
+ * Vector drawing of Pac-Man. {@link SpriteAtlas} uses it to render its mouth
+ * frames.
+ */
+public class PacmanPainter {
+    private final Paint paint = new Paint();
+    private final RectF rect = new RectF();
+
+    public PacmanPainter() {
+        paint.setColor(Color.YELLOW);
+        paint.setAntiAlias(true);
+    }
+
+    public void draw(Canvas canvas, WorldSnapshot world, int blockSize, int offsetX, int offsetY, float alpha) {
+        if (!world.isPacmanAlive()) return;
+
+        drawShape(canvas, offsetX + world.getPacmanRenderX(alpha, blockSize),
+                offsetY + world.getPacmanRenderY(alpha, blockSize),
+                blockSize, world.getPacmanDirection(), world.getMouthAngle());
+    }
+
+    /** Pac-Man in the cell whose top-left corner is {@code (left, top)}. */
+    public void drawShape(Canvas canvas, float left, float top, int blockSize, int direction, float mouthAngle) {
+        int size = blockSize - 4;
+        float centerX = left + blockSize/2;
+        float centerY = top + blockSize/2;
+        float radius = size/2;
+
+        float startAngle = 0;
+        switch (direction) {
+            case 0: startAngle = mouthAngle/2; break;
+            case 1: startAngle = 90 + mouthAngle/2; break;
+            case 2: startAngle = 180 + mouthAngle/2; break;
+            case 3: startAngle = 270 + mouthAngle/2; break;
+        }
+
+        float sweepAngle = 360 - mouthAngle;
+
+        rect.set(
+                centerX - radius,
+                centerY - radius,
+                centerX + radius,
+                centerY + radius
+        );
+        canvas.drawArc(rect, startAngle, sweepAngle, true, paint);
+    }
+}
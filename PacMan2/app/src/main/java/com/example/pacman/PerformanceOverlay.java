@@ -0,0 +1,86 @@
+package com.example.pacman;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import com.example.pacman.engine.WorldSnapshot;
+
+/**
+ * Live frame timing readout: p50/p95/p99 per phase of the game loop in
+ * milliseconds, dropped frames, the ghost path cache and input latency.
+ * The text is rebuilt every {@link #REFRESH_FRAMES} frames into reusable
+ * buffers.
+ */
+public class PerformanceOverlay {
+    private static final int REFRESH_FRAMES = 15;
+    private static final int LINE_HEIGHT = 32;
+    private static final int LINES = FrameStats.METRICS + 3;
+    /** Size of the area {@link #drawLines} covers. */
+    public static final int WIDTH = 520;
+    public static final int HEIGHT = LINE_HEIGHT * LINES + 12;
+
+    private final Paint textPaint = new Paint();
+    private final Paint backgroundPaint = new Paint();
+    private final TextLine[] lines = new TextLine[LINES];
+    private int framesUntilRefresh;
+
+    public PerformanceOverlay() {
+        textPaint.setColor(Color.GREEN);
+        textPaint.setTextSize(28);
+        textPaint.setAntiAlias(true);
+        backgroundPaint.setColor(0xB0000000);
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = new TextLine(64);
+        }
+    }
+
+    public void draw(Canvas canvas, FrameStats stats, WorldSnapshot world, int left, int top) {
+        update(stats, world);
+        drawLines(canvas, left, top);
+    }
+
+    /** Counts a frame and rebuilds the text when it is due; returns whether the text changed. */
+    public boolean update(FrameStats stats, WorldSnapshot world) {
+        if (--framesUntilRefresh > 0) {
+            return false;
+        }
+        framesUntilRefresh = REFRESH_FRAMES;
+        refresh(stats, world);
+        return true;
+    }
+
+    /** Area {@link #drawLines} covers. */
+    public void getBounds(Rect out, int left, int top) {
+        out.set(left, top, left + WIDTH, top + HEIGHT);
+    }
+
+    /** Draws the text as of the last refresh. */
+    public void drawLines(Canvas canvas, int left, int top) {
+        canvas.drawRect(left, top, left + WIDTH, top + HEIGHT, backgroundPaint);
+        for (int i = 0; i < lines.length; i++) {
+            TextLine line = lines[i];
+            canvas.drawText(line.getChars(), 0, line.length(), left + 8, top + LINE_HEIGHT * (i + 1), textPaint);
+        }
+    }
+
+    private void refresh(FrameStats stats, WorldSnapshot world) {
+        for (int metric = 0; metric < FrameStats.METRICS; metric++) {
+            appendPercentiles(lines[metric].clear().append(FrameStats.NAMES[metric]).append(' '),
+                    stats.percentile(metric, 50), stats.percentile(metric, 95), stats.percentile(metric, 99));
+        }
+        lines[FrameStats.METRICS].clear().append("dropped ").append(stats.getDroppedFrames())
+                .append(" of ").append(stats.getFrames());
+        lines[FrameStats.METRICS + 1].clear().append("paths hit ")
+                .appendFixed((long) (world.getPathHitRate() * 1000), 1).append("% ")
+                .append(world.getPathMemoryBytes() / 1024).append(" KB");
+        appendPercentiles(lines[FrameStats.METRICS + 2].clear().append("input "),
+                stats.inputLatencyPercentile(50), stats.inputLatencyPercentile(95), stats.inputLatencyPercentile(99));
+    }
+
+    private static void appendPercentiles(TextLine line, long p50, long p95, long p99) {
+        line.appendFixed(p50 / 10000, 2).append(" / ")
+                .appendFixed(p95 / 10000, 2).append(" / ")
+                .appendFixed(p99 / 10000, 2).append(" ms");
+    }
+}
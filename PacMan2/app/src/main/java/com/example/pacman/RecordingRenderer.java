@@ -0,0 +1,73 @@
+package com.example.pacman;
+
+import com.example.pacman.engine.WorldSnapshot;
+
+/**
+ * Headless backend that builds exactly the batches {@link GlRenderer} would
+ * submit and counts them instead of drawing, so tests can check what a frame
+ * costs the GPU without one.
+ */
+public class RecordingRenderer implements Renderer, SpriteBatch.Sink {
+    private final SpriteScene scene = new SpriteScene();
+    private final SpriteBatch batch = new SpriteBatch();
+    private final HudStrips hud = new HudStrips();
+    private long frames;
+    private long drawCalls;
+    private int frameDrawCalls;
+    private int frameQuads;
+
+    @Override
+    public void layout(int width, int height, int blockSize, int offsetX, int offsetY) {
+        scene.layout(width, height, blockSize, offsetX, offsetY);
+        hud.layout(width, height);
+    }
+
+    @Override
+    public boolean beginFrame() {
+        frameDrawCalls = 0;
+        frameQuads = 0;
+        return true;
+    }
+
+    @Override
+    public void drawFrame(WorldSnapshot world, float alpha, FrameStats stats) {
+        batch.begin(this);
+        scene.build(batch, world, alpha);
+        hud.addVisible(batch, world.isGameRunning(), stats != null);
+        batch.end();
+    }
+
+    @Override
+    public void draw(float[] vertices, int quads) {
+        frameDrawCalls++;
+        frameQuads += quads;
+    }
+
+    @Override
+    public void endFrame() {
+        frames++;
+        drawCalls += frameDrawCalls;
+    }
+
+    @Override
+    public void release() {
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    /** Draw calls in the last frame. */
+    public int getFrameDrawCalls() {
+        return frameDrawCalls;
+    }
+
+    /** Quads in the last frame. */
+    public int getFrameQuads() {
+        return frameQuads;
+    }
+}
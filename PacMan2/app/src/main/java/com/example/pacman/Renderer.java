@@ -0,0 +1,31 @@
+package com.example.pacman;
+
+import com.example.pacman.engine.WorldSnapshot;
+
+/**
+ * A backend that draws the game into some target. {@link GameThread} drives
+ * it every frame on the render thread: {@link #layout} when the surface or
+ * maze size changed, {@link #beginFrame()}, {@link #drawFrame} with the
+ * newest {@link WorldSnapshot}, then {@link #endFrame()}. Backends never
+ * read the engine, which is ticked on another thread.
+ */
+public interface Renderer {
+    /** Surface size and where the maze sits on it, in pixels. */
+    void layout(int width, int height, int blockSize, int offsetX, int offsetY);
+
+    /** Acquires the target; false when the surface is not ready and the frame must be skipped. */
+    boolean beginFrame();
+
+    /**
+     * Draws {@code world} with actors {@code alpha} of the way from their
+     * previous tick position to the latest one, with the performance overlay
+     * when {@code stats} is not null.
+     */
+    void drawFrame(WorldSnapshot world, float alpha, FrameStats stats);
+
+    /** Presents the frame acquired by {@link #beginFrame()}. */
+    void endFrame();
+
+    /** Frees the target's resources when the game thread stops. */
+    void release();
+}
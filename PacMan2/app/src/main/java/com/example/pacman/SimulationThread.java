@@ -0,0 +1,56 @@
+package com.example.pacman;
+
+import com.example.pacman.engine.GameEngine;
+import com.example.pacman.engine.WorldSnapshot;
+
+/**
+ * Ticks the game at a fixed {@link GameEngine#TICKS_PER_SECOND} and
+ * publishes a {@link WorldSnapshot} after every tick, independently of the
+ * frame rate. Each tick is given the time it was due, not the time it ran.
+ * A late wake-up is caught up with extra ticks, up to
+ * {@link #MAX_TICKS_PER_WAKEUP}; beyond that the game slows down instead of
+ * jumping ahead.
+ */
+public class SimulationThread extends Thread {
+    static final long TICK_NANOS = 1000000000L / GameEngine.TICKS_PER_SECOND;
+    private static final int MAX_TICKS_PER_WAKEUP = 5;
+
+    private final GameView gameView;
+    private volatile boolean running;
+
+    public SimulationThread(GameView gameView) {
+        this.gameView = gameView;
+    }
+
+    public void setRunning(boolean isRunning) {
+        this.running = isRunning;
+    }
+
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            if (now - nextTick > MAX_TICKS_PER_WAKEUP * TICK_NANOS) {
+                nextTick = now - (MAX_TICKS_PER_WAKEUP - 1) * TICK_NANOS;
+            }
+            while (nextTick <= now) {
+                try {
+                    gameView.update(nextTick);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                nextTick += TICK_NANOS;
+            }
+
+            long waitTime = nextTick - System.nanoTime();
+            if (waitTime > 0) {
+                try {
+                    sleep(waitTime / 1000000, (int) (waitTime % 1000000));
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
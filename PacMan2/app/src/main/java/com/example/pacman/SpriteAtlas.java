@@ -0,0 +1,224 @@
+package com.example.pacman;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import com.example.pacman.engine.WorldSnapshot;
+
+/**
+ * Pre-rendered animation frames for the Canvas backend, one cell of
+ * {@code blockSize} pixels each in a single bitmap, so every actor is one
+ * bitmap blit instead of arcs, paths and circles.
+ *
+ * <p>The atlas holds Pac-Man's mouth quantised to {@link #MOUTH_FRAMES}
+ * steps per direction, and for each ghost colour {@link #WAVE_FRAMES} skirt
+ * phases per direction with the eyes already drawn in. Frightened ghosts
+ * are one more colour, and eaten ghosts get one eyes-only frame per
+ * direction. Colour rows are rendered the first time a colour is seen, up
+ * to {@link #COLOR_SLOTS} colours; any other colour is drawn with the
+ * painters.
+ *
+ * <p>The bitmap is built lazily on the first draw after the block size
+ * changes, which happens on every surface change. If the full set would
+ * exceed {@link #MAX_BYTES}, the number of frames is halved until it fits.
+ */
+public class SpriteAtlas {
+    static final int MOUTH_FRAMES = 8;
+    static final int WAVE_FRAMES = 8;
+    /** Ghost colours the atlas holds, the frightened blue included. */
+    static final int COLOR_SLOTS = 6;
+    static final long MAX_BYTES = 8L * 1024 * 1024;
+
+    private static final int MIN_MOUTH = 30;
+    private static final int MAX_MOUTH = 45;
+    private static final int COLUMNS = 16;
+    private static final float TWO_PI = (float) (2 * Math.PI);
+
+    private final PacmanPainter pacmanPainter;
+    private final GhostPainter ghostPainter;
+    private final Rect source = new Rect();
+    private final RectF dest = new RectF();
+    private final int[] slotColors = new int[COLOR_SLOTS];
+    private int slotsUsed;
+
+    private Bitmap bitmap;
+    private Canvas canvas;
+    private int blockSize;
+    private int mouthFrames;
+    private int waveFrames;
+    private long bytes;
+
+    public SpriteAtlas(PacmanPainter pacmanPainter, GhostPainter ghostPainter) {
+        this.pacmanPainter = pacmanPainter;
+        this.ghostPainter = ghostPainter;
+    }
+
+    /** Draws Pac-Man from the atlas; false if it has to be drawn with the painter instead. */
+    public boolean drawPacman(Canvas target, WorldSnapshot world, int blockSize, int offsetX, int offsetY,
+            float alpha) {
+        if (!world.isPacmanAlive()) return true;
+        if (!prepare(blockSize)) return false;
+
+        blit(target, mouthCell(world.getPacmanDirection(), world.getMouthAngle()),
+                offsetX + world.getPacmanRenderX(alpha, blockSize), offsetY + world.getPacmanRenderY(alpha, blockSize));
+        return true;
+    }
+
+    /** Draws ghost {@code ghost} from the atlas; false if it has to be drawn with the painter instead. */
+    public boolean drawGhost(Canvas target, WorldSnapshot world, int ghost, int blockSize, int offsetX, int offsetY,
+            float alpha) {
+        if (!prepare(blockSize)) return false;
+
+        int cell;
+        if (world.isGhostEaten(ghost)) {
+            cell = eyesCell(world.getGhostDirection(ghost));
+        } else {
+            int slot = slotOf(world.isGhostScared(ghost) ? Color.BLUE : world.getGhostColor(ghost));
+            if (slot < 0) return false;
+            cell = ghostCell(slot, world.getGhostDirection(ghost), world.getGhostWaveOffset(ghost));
+        }
+        blit(target, cell, offsetX + world.getGhostRenderX(ghost, alpha, blockSize),
+                offsetY + world.getGhostRenderY(ghost, alpha, blockSize));
+        return true;
+    }
+
+    /**
+     * Makes sure the atlas matches {@code blockSize}, rebuilding it if not.
+     * Returns false when even the smallest frame set does not fit in
+     * {@link #MAX_BYTES} or the bitmap could not be created.
+     */
+    boolean prepare(int blockSize) {
+        if (blockSize == this.blockSize) {
+            return bitmap != null;
+        }
+        this.blockSize = blockSize;
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+        }
+        bytes = 0;
+        slotsUsed = 0;
+        if (!fitFrames(blockSize)) return false;
+
+        bitmap = Bitmap.createBitmap(COLUMNS * blockSize, rows() * blockSize, Bitmap.Config.ARGB_8888);
+        if (bitmap == null) return false;
+        canvas = new Canvas(bitmap);
+        bytes = bytesFor(blockSize);
+
+        for (int dir = 0; dir < 4; dir++) {
+            for (int frame = 0; frame < mouthFrames; frame++) {
+                float mouth = MIN_MOUTH + (MAX_MOUTH - MIN_MOUTH) * frame / (float) Math.max(1, mouthFrames - 1);
+                int cell = dir * mouthFrames + frame;
+                pacmanPainter.drawShape(canvas, cellX(cell), cellY(cell), blockSize, dir, mouth);
+            }
+            int cell = eyesCell(dir);
+            ghostPainter.drawEyes(canvas, cellX(cell), cellY(cell), blockSize, dir);
+        }
+        return true;
+    }
+
+    /** Colour slot for {@code color}, rendering its frames the first time; -1 when every slot is taken. */
+    private int slotOf(int color) {
+        for (int slot = 0; slot < slotsUsed; slot++) {
+            if (slotColors[slot] == color) return slot;
+        }
+        if (slotsUsed == COLOR_SLOTS) return -1;
+
+        int slot = slotsUsed++;
+        slotColors[slot] = color;
+        for (int dir = 0; dir < 4; dir++) {
+            for (int frame = 0; frame < waveFrames; frame++) {
+                int cell = firstGhostCell() + (slot * 4 + dir) * waveFrames + frame;
+                float left = cellX(cell);
+                float top = cellY(cell);
+                ghostPainter.drawBody(canvas, left, top, blockSize, color, frame * TWO_PI / waveFrames);
+                ghostPainter.drawEyes(canvas, left, top, blockSize, dir);
+            }
+        }
+        return slot;
+    }
+
+    int mouthCell(int direction, float mouthAngle) {
+        int frame = Math.round((mouthAngle - MIN_MOUTH) * (mouthFrames - 1) / (MAX_MOUTH - MIN_MOUTH));
+        frame = frame < 0 ? 0 : (frame >= mouthFrames ? mouthFrames - 1 : frame);
+        return direction * mouthFrames + frame;
+    }
+
+    private int eyesCell(int direction) {
+        return 4 * mouthFrames + direction;
+    }
+
+    private int firstGhostCell() {
+        return 4 * mouthFrames + 4;
+    }
+
+    int ghostCell(int slot, int direction, float waveOffset) {
+        int frame = (int) (waveOffset / TWO_PI * waveFrames) % waveFrames;
+        if (frame < 0) frame += waveFrames;
+        return firstGhostCell() + (slot * 4 + direction) * waveFrames + frame;
+    }
+
+    private int rows() {
+        return (firstGhostCell() + COLOR_SLOTS * 4 * waveFrames + COLUMNS - 1) / COLUMNS;
+    }
+
+    /**
+     * Picks the frame counts for {@code blockSize}, halving them until the
+     * atlas fits in {@link #MAX_BYTES}; false if it never does.
+     */
+    boolean fitFrames(int blockSize) {
+        if (blockSize <= 0) return false;
+        mouthFrames = MOUTH_FRAMES;
+        waveFrames = WAVE_FRAMES;
+        while (bytesFor(blockSize) > MAX_BYTES && (mouthFrames > 1 || waveFrames > 1)) {
+            mouthFrames = Math.max(1, mouthFrames / 2);
+            waveFrames = Math.max(1, waveFrames / 2);
+        }
+        return bytesFor(blockSize) <= MAX_BYTES;
+    }
+
+    long bytesFor(int blockSize) {
+        return (long) rows() * COLUMNS * blockSize * blockSize * 4;
+    }
+
+    private int cellX(int cell) {
+        return (cell % COLUMNS) * blockSize;
+    }
+
+    private int cellY(int cell) {
+        return (cell / COLUMNS) * blockSize;
+    }
+
+    private void blit(Canvas target, int cell, float left, float top) {
+        int x = cellX(cell);
+        int y = cellY(cell);
+        source.set(x, y, x + blockSize, y + blockSize);
+        dest.set(left, top, left + blockSize, top + blockSize);
+        target.drawBitmap(bitmap, source, dest, null);
+    }
+
+    /** Size of the atlas bitmap, 0 when there is none. */
+    public long getMemoryBytes() {
+        return bytes;
+    }
+
+    int getMouthFrames() {
+        return mouthFrames;
+    }
+
+    int getWaveFrames() {
+        return waveFrames;
+    }
+
+    /** Frees the bitmap; the next draw rebuilds it. */
+    public void release() {
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+        }
+        blockSize = 0;
+        bytes = 0;
+    }
+}
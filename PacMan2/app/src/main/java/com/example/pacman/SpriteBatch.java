@@ -0,0 +1,119 @@
+package com.example.pacman;
+
+/**
+ * Quads for the GL backend, written into one float array and handed to a
+ * {@link Sink} as a single draw call whenever the array fills up or the
+ * frame ends. Every quad carries its own shape and colour and the fragment
+ * shader cuts circles, Pac-Man's mouth and ghost skirts out of it, so walls,
+ * dots, actors and the HUD all share one program and, on the classic maze,
+ * one draw call.
+ *
+ * <p>Each vertex is position (pixels), local coordinates (-1 to 1 across
+ * the quad), colour (premultiplied later in the shader) and shape with two
+ * shape parameters.
+ */
+public final class SpriteBatch {
+    public static final int RECT = 0;
+    public static final int CIRCLE = 1;
+    /** Circle with a mouth: parameters are the heading and half the mouth angle, in radians. */
+    public static final int PACMAN = 2;
+    /** Domed body with a wavy skirt: the parameter is the wave phase. */
+    public static final int GHOST = 3;
+    /** Samples the HUD texture across the quad. */
+    public static final int TEXTURE = 4;
+
+    public static final int FLOATS_PER_VERTEX = 11;
+    public static final int FLOATS_PER_QUAD = 4 * FLOATS_PER_VERTEX;
+    /** Quads per draw call; keeps vertex indices within 16 bits. */
+    public static final int MAX_QUADS = 4096;
+    private static final int WHITE = 0xFFFFFFFF;
+
+    /** Receives each full batch; {@code vertices} is reused once the call returns. */
+    public interface Sink {
+        void draw(float[] vertices, int quads);
+    }
+
+    private final float[] vertices = new float[MAX_QUADS * FLOATS_PER_QUAD];
+    private int quads;
+    private Sink sink;
+
+    public void begin(Sink sink) {
+        this.sink = sink;
+        quads = 0;
+    }
+
+    public void add(int shape, float left, float top, float right, float bottom, int color, float p0, float p1) {
+        if (quads == MAX_QUADS) {
+            flush();
+        }
+        write(vertices, quads++, shape, left, top, right, bottom, color, p0, p1);
+    }
+
+    /**
+     * Adds a {@link #TEXTURE} quad that samples the part of the texture from
+     * {@code u0, v0} to {@code u1, v1}, each between 0 and 1.
+     */
+    public void addTexture(float left, float top, float right, float bottom, float u0, float v0, float u1, float v1) {
+        if (quads == MAX_QUADS) {
+            flush();
+        }
+        int i = quads++ * FLOATS_PER_QUAD;
+        // The shader maps the local coordinate from -1..1 onto 0..1 of the texture.
+        i = vertex(vertices, i, left, top, u0 * 2 - 1, v0 * 2 - 1, WHITE, TEXTURE, 0, 0);
+        i = vertex(vertices, i, right, top, u1 * 2 - 1, v0 * 2 - 1, WHITE, TEXTURE, 0, 0);
+        i = vertex(vertices, i, right, bottom, u1 * 2 - 1, v1 * 2 - 1, WHITE, TEXTURE, 0, 0);
+        vertex(vertices, i, left, bottom, u0 * 2 - 1, v1 * 2 - 1, WHITE, TEXTURE, 0, 0);
+    }
+
+    /** Appends {@code count} quads already laid out by {@link #write}. */
+    public void addAll(float[] source, int count) {
+        int done = 0;
+        while (done < count) {
+            if (quads == MAX_QUADS) {
+                flush();
+            }
+            int n = Math.min(count - done, MAX_QUADS - quads);
+            System.arraycopy(source, done * FLOATS_PER_QUAD, vertices, quads * FLOATS_PER_QUAD, n * FLOATS_PER_QUAD);
+            quads += n;
+            done += n;
+        }
+    }
+
+    public void end() {
+        flush();
+        sink = null;
+    }
+
+    private void flush() {
+        if (quads > 0) {
+            sink.draw(vertices, quads);
+            quads = 0;
+        }
+    }
+
+    /** Writes quad number {@code index} of {@code target}, top-left vertex first, clockwise. */
+    public static void write(float[] target, int index, int shape, float left, float top, float right, float bottom,
+                             int color, float p0, float p1) {
+        int i = index * FLOATS_PER_QUAD;
+        i = vertex(target, i, left, top, -1, -1, color, shape, p0, p1);
+        i = vertex(target, i, right, top, 1, -1, color, shape, p0, p1);
+        i = vertex(target, i, right, bottom, 1, 1, color, shape, p0, p1);
+        vertex(target, i, left, bottom, -1, 1, color, shape, p0, p1);
+    }
+
+    private static int vertex(float[] target, int i, float x, float y, float u, float v, int color,
+                              int shape, float p0, float p1) {
+        target[i] = x;
+        target[i + 1] = y;
+        target[i + 2] = u;
+        target[i + 3] = v;
+        target[i + 4] = ((color >> 16) & 0xFF) / 255f;
+        target[i + 5] = ((color >> 8) & 0xFF) / 255f;
+        target[i + 6] = (color & 0xFF) / 255f;
+        target[i + 7] = (color >>> 24) / 255f;
+        target[i + 8] = shape;
+        target[i + 9] = p0;
+        target[i + 10] = p1;
+        return i + FLOATS_PER_VERTEX;
+    }
+}
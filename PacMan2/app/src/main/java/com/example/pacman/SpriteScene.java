@@ -0,0 +1,156 @@
+package com.example.pacman;
+
+import android.graphics.Color;
+import com.example.pacman.engine.DotIndex;
+import com.example.pacman.engine.GameListener;
+import com.example.pacman.engine.TileGrid;
+import com.example.pacman.engine.WorldSnapshot;
+import java.util.Arrays;
+
+/**
+ * A {@link WorldSnapshot} as {@link SpriteBatch} quads, with the same
+ * geometry and colours as the Canvas painters. Walls and gates are merged
+ * into one quad per horizontal run and kept between frames; they are
+ * rebuilt only when the layout or the maze changes. Dots come from a
+ * {@link DotIndex} synced to each snapshot.
+ */
+public final class SpriteScene implements GameListener {
+    private static final float QUARTER_TURN = (float) (Math.PI / 2);
+
+    private final DotIndex dots = new DotIndex();
+    private float[] walls = new float[64 * SpriteBatch.FLOATS_PER_QUAD];
+    private int wallQuads;
+    private boolean wallsDirty = true;
+    private int width;
+    private int height;
+    private int blockSize;
+    private int offsetX;
+    private int offsetY;
+
+    public void layout(int width, int height, int blockSize, int offsetX, int offsetY) {
+        this.width = width;
+        this.height = height;
+        this.blockSize = blockSize;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        wallsDirty = true;
+    }
+
+    @Override
+    public void onMapLoaded() {
+        wallsDirty = true;
+    }
+
+    /** Adds one frame: walls, dots, ghosts and Pac-Man; the HUD goes on top separately. */
+    public void build(SpriteBatch batch, WorldSnapshot world, float alpha) {
+        dots.sync(world, this);
+        if (blockSize == 0) return;
+        if (wallsDirty) {
+            wallsDirty = false;
+            buildWalls(world);
+        }
+        batch.addAll(walls, wallQuads);
+        addDots(batch, world);
+
+        for (int i = 0; i < world.getGhostCount(); i++) {
+            addGhost(batch, world, i, alpha);
+        }
+        addPacman(batch, world, alpha);
+    }
+
+    private void buildWalls(WorldSnapshot world) {
+        int columns = world.getWidthInBlocks();
+        int rows = world.getHeightInBlocks();
+        wallQuads = 0;
+        for (int y = 0; y < rows; y++) {
+            int x = 0;
+            while (x < columns) {
+                int tile = world.getTile(x, y);
+                int end = x + 1;
+                while (end < columns && world.getTile(end, y) == tile) {
+                    end++;
+                }
+                if (tile == TileGrid.WALL || tile == TileGrid.GATE) {
+                    if ((wallQuads + 1) * SpriteBatch.FLOATS_PER_QUAD > walls.length) {
+                        walls = Arrays.copyOf(walls, walls.length * 2);
+                    }
+                    SpriteBatch.write(walls, wallQuads++, SpriteBatch.RECT,
+                            offsetX + x * blockSize, offsetY + y * blockSize,
+                            offsetX + end * blockSize, offsetY + (y + 1) * blockSize,
+                            tile == TileGrid.WALL ? Color.BLUE : Color.GRAY, 0, 0);
+                }
+                x = end;
+            }
+        }
+    }
+
+    private void addDots(SpriteBatch batch, WorldSnapshot world) {
+        int columns = world.getWidthInBlocks();
+        for (int i = 0; i < dots.size(); i++) {
+            int cell = dots.get(i);
+            int x = cell % columns;
+            int y = cell / columns;
+            float centerX = offsetX + x * blockSize + blockSize / 2;
+            float centerY = offsetY + y * blockSize + blockSize / 2;
+
+            if (world.getTile(x, y) == TileGrid.POWER_DOT) {
+                circle(batch, centerX, centerY, blockSize / 4, Color.YELLOW);
+            } else {
+                circle(batch, centerX, centerY, blockSize / 8, Color.WHITE);
+            }
+        }
+    }
+
+    private void addGhost(SpriteBatch batch, WorldSnapshot world, int ghost, float alpha) {
+        int size = blockSize - 4;
+        float pixelX = world.getGhostRenderX(ghost, alpha, blockSize);
+        float pixelY = world.getGhostRenderY(ghost, alpha, blockSize);
+        float centerX = offsetX + pixelX + blockSize / 2;
+        float centerY = offsetY + pixelY + blockSize / 2;
+
+        if (!world.isGhostEaten(ghost)) {
+            batch.add(SpriteBatch.GHOST, offsetX + pixelX, centerY - size / 2, offsetX + pixelX + size,
+                    offsetY + pixelY + size, world.isGhostScared(ghost) ? Color.BLUE : world.getGhostColor(ghost),
+                    world.getGhostWaveOffset(ghost), 0);
+        }
+
+        float eyeY = centerY - size / 8;
+        circle(batch, centerX - size / 4, eyeY, size / 4, Color.WHITE);
+        circle(batch, centerX + size / 4, eyeY, size / 4, Color.WHITE);
+
+        float pupilX = 0;
+        float pupilY = eyeY;
+        switch (world.getGhostDirection(ghost)) {
+            case 0: pupilX += size / 12; break;
+            case 1: pupilY += size / 12; break;
+            case 2: pupilX -= size / 12; break;
+            case 3: pupilY -= size / 12; break;
+        }
+        circle(batch, centerX - size / 4 + pupilX, pupilY, size / 8, Color.BLUE);
+        circle(batch, centerX + size / 4 + pupilX, pupilY, size / 8, Color.BLUE);
+    }
+
+    private void addPacman(SpriteBatch batch, WorldSnapshot world, float alpha) {
+        if (!world.isPacmanAlive()) return;
+
+        float radius = (blockSize - 4) / 2;
+        float centerX = offsetX + world.getPacmanRenderX(alpha, blockSize) + blockSize / 2;
+        float centerY = offsetY + world.getPacmanRenderY(alpha, blockSize) + blockSize / 2;
+        batch.add(SpriteBatch.PACMAN, centerX - radius, centerY - radius, centerX + radius, centerY + radius,
+                Color.YELLOW, world.getPacmanDirection() * QUARTER_TURN,
+                (float) Math.toRadians(world.getMouthAngle()) / 2);
+    }
+
+    private static void circle(SpriteBatch batch, float centerX, float centerY, float radius, int color) {
+        batch.add(SpriteBatch.CIRCLE, centerX - radius, centerY - radius, centerX + radius, centerY + radius,
+                color, 0, 0);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
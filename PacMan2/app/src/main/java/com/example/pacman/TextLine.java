@@ -0,0 +1,83 @@
+package com.example.pacman;
+
+/**
+ * Reusable char buffer for HUD lines made of several values. Appending never
+ * allocates; text past the capacity is dropped.
+ */
+public class TextLine {
+    private final char[] chars;
+    private int length;
+
+    public TextLine(int capacity) {
+        this.chars = new char[capacity];
+    }
+
+    public TextLine clear() {
+        length = 0;
+        return this;
+    }
+
+    public TextLine append(String text) {
+        for (int i = 0; i < text.length() && length < chars.length; i++) {
+            chars[length++] = text.charAt(i);
+        }
+        return this;
+    }
+
+    public TextLine append(char c) {
+        if (length < chars.length) {
+            chars[length++] = c;
+        }
+        return this;
+    }
+
+    public TextLine append(long value) {
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        int start = length;
+        do {
+            append((char) ('0' + value % 10));
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            char tmp = chars[i];
+            chars[i] = chars[j];
+            chars[j] = tmp;
+        }
+        return this;
+    }
+
+    /** Appends {@code value / 10^decimals} with exactly {@code decimals} fraction digits. */
+    public TextLine appendFixed(long value, int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) scale *= 10;
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        append(value / scale);
+        if (decimals > 0) {
+            append('.');
+            long fraction = value % scale;
+            for (long digit = scale / 10; digit > 0; digit /= 10) {
+                append((char) ('0' + fraction / digit % 10));
+            }
+        }
+        return this;
+    }
+
+    public char[] getChars() {
+        return chars;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.pacman;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.Surface;
+import android.view.SurfaceHolder;
+import com.example.pacman.engine.GameEngine;
+import com.example.pacman.engine.WorldSnapshot;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DirtyRegionsTest {
+    @Test
+    public void overlappingAreas_merge() {
+        DirtyRegions regions = new DirtyRegions();
+        regions.setSurface(1000, 1000);
+        regions.clear();
+
+        regions.add(10, 10, 50, 50);
+        regions.add(40, 40, 80, 80);
+        regions.add(500, 500, 520, 520);
+
+        assertEquals(2, regions.size());
+        assertEquals(10, regions.getLeft(0));
+        assertEquals(80, regions.getBottom(0));
+        assertEquals(10, regions.getBoundsTop());
+        assertEquals(520, regions.getBoundsRight());
+    }
+
+    @Test
+    public void areas_areClippedToSurface() {
+        DirtyRegions regions = new DirtyRegions();
+        regions.setSurface(100, 100);
+        regions.clear();
+
+        regions.add(-20, 90, 30, 140);
+        regions.add(200, 200, 220, 220);
+
+        assertEquals(1, regions.size());
+        assertEquals(0, regions.getLeft(0));
+        assertEquals(100, regions.getBottom(0));
+    }
+
+    @Test
+    public void tooManyAreas_dirtyTheWholeSurface() {
+        DirtyRegions regions = new DirtyRegions();
+        regions.setSurface(10000, 100);
+        assertTrue(regions.isFull());
+        regions.clear();
+
+        for (int i = 0; i <= DirtyRegions.MAX_REGIONS; i++) {
+            regions.add(i * 20, 0, i * 20 + 10, 10);
+        }
+
+        assertTrue(regions.isFull());
+        assertEquals(10000, regions.getBoundsRight());
+    }
+
+    @Test
+    public void incrementalFrames_lockOnlyWhatChanged() {
+        GameEngine engine = new GameEngine(1L);
+        RecordingHolder holder = new RecordingHolder();
+        WorldSnapshot world = new WorldSnapshot();
+        world.capture(engine);
+        CanvasRenderer renderer = new CanvasRenderer(holder);
+        renderer.setIncremental(true);
+        renderer.layout(1080, 1920, 50, 65, 410);
+
+        frame(renderer, world);
+        assertEquals(-1, renderer.getLastRegionCount());
+        assertEquals(1080 * 1920, renderer.getLastDirtyArea());
+
+        engine.tick();
+        world.capture(engine);
+        frame(renderer, world);
+        assertTrue(renderer.getLastRegionCount() > 0);
+        assertTrue(renderer.getLastRegionCount() <= 2 * 5 + 2);
+        assertTrue(renderer.getLastDirtyArea() < 1080 * 1920);
+        assertEquals(2, holder.posts);
+
+        renderer.layout(1080, 1920, 50, 65, 410);
+        frame(renderer, world);
+        assertEquals(-1, renderer.getLastRegionCount());
+    }
+
+    /** Skips {@code beginFrame}, which in incremental mode only checks that the surface is valid. */
+    private static void frame(Renderer renderer, WorldSnapshot world) {
+        renderer.drawFrame(world, 1f, null);
+        renderer.endFrame();
+    }
+
+    private static class RecordingHolder implements SurfaceHolder {
+        int posts;
+
+        @Override
+        public void addCallback(Callback c) {
+        }
+
+        @Override
+        public void removeCallback(Callback c) {
+        }
+
+        @Override
+        public boolean isCreating() {
+            return false;
+        }
+
+        @Override
+        public void setType(int type) {
+        }
+
+        @Override
+        public void setFixedSize(int width, int height) {
+        }
+
+        @Override
+        public void setSizeFromLayout() {
+        }
+
+        @Override
+        public void setFormat(int format) {
+        }
+
+        @Override
+        public void setKeepScreenOn(boolean screenOn) {
+        }
+
+        @Override
+        public Canvas lockCanvas() {
+            return new Canvas();
+        }
+
+        @Override
+        public Canvas lockCanvas(Rect dirty) {
+            return new Canvas();
+        }
+
+        @Override
+        public void unlockCanvasAndPost(Canvas c) {
+            posts++;
+        }
+
+        @Override
+        public Rect getSurfaceFrame() {
+            return null;
+        }
+
+        @Override
+        public Surface getSurface() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.pacman;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FramePacerTest {
+    private static final long PERIOD_60 = 1000000000L / 60;
+
+    private static int drawn(FramePacer pacer, float hertz, int vsyncs, boolean idle) {
+        long period = (long) (1000000000L / hertz);
+        int frames = 0;
+        for (int i = 1; i <= vsyncs; i++) {
+            // A little jitter on the vsync timestamps, as on a real display.
+            long jitter = (i % 3 - 1) * 200000L;
+            if (pacer.shouldDraw(i * period + jitter, idle)) {
+                frames++;
+            }
+        }
+        return frames;
+    }
+
+    @Test
+    public void nativeRate_drawsEveryVsync() {
+        FramePacer pacer = new FramePacer();
+        pacer.setRefreshRate(60);
+
+        assertEquals(120, drawn(pacer, 60, 120, false));
+    }
+
+    @Test
+    public void thirtyOnSixtyHertz_drawsEveryOtherVsync() {
+        FramePacer pacer = new FramePacer();
+        pacer.setRefreshRate(60);
+        pacer.setTargetFrameRate(30);
+
+        assertEquals(60, drawn(pacer, 60, 120, false));
+    }
+
+    @Test
+    public void sixtyOnOneTwentyHertz_keepsTheTargetRate() {
+        FramePacer pacer = new FramePacer();
+        pacer.setRefreshRate(120);
+        pacer.setTargetFrameRate(60);
+
+        assertEquals(120, drawn(pacer, 120, 240, false));
+    }
+
+    @Test
+    public void targetAboveRefreshRate_isCappedByTheDisplay() {
+        FramePacer pacer = new FramePacer();
+        pacer.setRefreshRate(60);
+        pacer.setTargetFrameRate(120);
+
+        assertEquals(pacer.getRefreshPeriodNanos(), pacer.getFrameIntervalNanos(false));
+        assertEquals(120, drawn(pacer, 60, 120, false));
+    }
+
+    @Test
+    public void staticScreen_dropsToIdleRate() {
+        FramePacer pacer = new FramePacer();
+        pacer.setRefreshRate(60);
+
+        assertEquals(5 * FramePacer.IDLE_FRAME_RATE, drawn(pacer, 60, 300, true));
+    }
+
+    @Test
+    public void requestedFrame_isDrawnOffSchedule() {
+        FramePacer pacer = new FramePacer();
+        pacer.setRefreshRate(60);
+        assertTrue(pacer.shouldDraw(PERIOD_60, true));
+        assertFalse(pacer.shouldDraw(2 * PERIOD_60, true));
+
+        pacer.requestFrame();
+
+        assertTrue(pacer.shouldDraw(3 * PERIOD_60, true));
+        assertFalse(pacer.shouldDraw(4 * PERIOD_60, true));
+    }
+}
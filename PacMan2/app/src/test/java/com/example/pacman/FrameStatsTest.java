@@ -0,0 +1,59 @@
+package com.example.pacman;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameStatsTest {
+    private static final long MS = 1000000L;
+
+    @Test
+    public void percentiles_useNearestRank() {
+        FrameStats stats = new FrameStats(100);
+        for (int i = 1; i <= 100; i++) {
+            stats.recordFrame(i * MS, 0, 0, 0, 0, 16 * MS);
+        }
+
+        assertEquals(50 * MS, stats.percentile(FrameStats.UPDATE, 50));
+        assertEquals(95 * MS, stats.percentile(FrameStats.UPDATE, 95));
+        assertEquals(99 * MS, stats.percentile(FrameStats.UPDATE, 99));
+        assertEquals(0, stats.percentile(FrameStats.DRAW, 99));
+    }
+
+    @Test
+    public void ringBuffer_keepsOnlyLatestFrames() {
+        FrameStats stats = new FrameStats(10);
+        for (int i = 0; i < 10; i++) {
+            stats.recordFrame(100 * MS, 0, 0, 0, 0, 16 * MS);
+        }
+        for (int i = 0; i < 10; i++) {
+            stats.recordFrame(MS, 0, 0, 0, 0, 16 * MS);
+        }
+
+        assertEquals(10, stats.size());
+        assertEquals(20, stats.getFrames());
+        assertEquals(MS, stats.percentile(FrameStats.UPDATE, 99));
+    }
+
+    @Test
+    public void longIntervals_countAsDroppedFrames() {
+        FrameStats stats = new FrameStats();
+        stats.setFramePeriodNanos(16 * MS);
+
+        stats.recordFrame(0, 0, 0, 0, 0, 16 * MS);
+        stats.recordFrame(0, 0, 0, 0, 0, 33 * MS);
+        stats.recordFrame(0, 0, 0, 0, 0, 20 * MS);
+
+        assertEquals(1, stats.getDroppedFrames());
+    }
+
+    @Test
+    public void textLine_formatsFixedPoint() {
+        TextLine line = new TextLine(32);
+
+        line.append("p99 ").appendFixed(1234, 2).append(" ms");
+        assertEquals("p99 12.34 ms", line.toString());
+        line.clear().appendFixed(5, 2);
+        assertEquals("0.05", line.toString());
+    }
+}
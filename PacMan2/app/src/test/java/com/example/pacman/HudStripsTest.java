@@ -0,0 +1,46 @@
+package com.example.pacman;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HudStripsTest {
+    @Test
+    public void texture_coversOnlyTheStrips() {
+        HudStrips strips = new HudStrips();
+        strips.layout(1440, 3200);
+
+        assertEquals(1440, strips.getTextureWidth());
+        assertEquals(HudPainter.TOP_BAR_HEIGHT + HudPainter.MESSAGE_ABOVE + HudPainter.MESSAGE_BELOW
+                + PerformanceOverlay.HEIGHT, strips.getTextureHeight());
+        assertTrue(strips.getTextureHeight() * 4 < 3200);
+        for (int i = 1; i < HudStrips.STRIPS; i++) {
+            assertEquals(strips.getTextureTop(i - 1) + strips.getHeight(i - 1), strips.getTextureTop(i));
+        }
+    }
+
+    @Test
+    public void addVisible_drawsTheMessageAndOverlayOnlyWhenUp() {
+        HudStrips strips = new HudStrips();
+        strips.layout(1080, 1920);
+        SpriteBatch batch = new SpriteBatch();
+        final int[] quads = new int[1];
+        SpriteBatch.Sink sink = new SpriteBatch.Sink() {
+            @Override
+            public void draw(float[] vertices, int count) {
+                quads[0] += count;
+            }
+        };
+
+        batch.begin(sink);
+        strips.addVisible(batch, true, false);
+        batch.end();
+        assertEquals(1, quads[0]);
+
+        quads[0] = 0;
+        batch.begin(sink);
+        strips.addVisible(batch, false, true);
+        batch.end();
+        assertEquals(3, quads[0]);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.pacman;
+
+import android.graphics.Canvas;
+import com.example.pacman.engine.GameEngine;
+import com.example.pacman.engine.WorldSnapshot;
+import java.lang.management.ManagementFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the per-frame render path against the stubbed android.jar and counts
+ * the bytes allocated by the test thread once the painters are warmed up.
+ */
+public class RenderAllocationTest {
+    private static final int FRAMES = 10000;
+    private static final int ROUNDS = 5;
+
+    private final GameEngine engine = new GameEngine();
+    private final WorldSnapshot world = new WorldSnapshot();
+    private final PacmanPainter pacmanPainter = new PacmanPainter();
+    private final GhostPainter ghostPainter = new GhostPainter();
+    private final SpriteAtlas atlas = new SpriteAtlas(pacmanPainter, ghostPainter);
+    private final HudPainter hudPainter = new HudPainter();
+    private final PerformanceOverlay overlay = new PerformanceOverlay();
+    private final FrameStats frameStats = new FrameStats();
+    private final Canvas canvas = new Canvas();
+
+    @Test
+    public void hudText_formatsNumbers() {
+        HudText text = new HudText("Score: ", " pts");
+
+        text.set(0);
+        assertEquals("Score: 0 pts", text.toString());
+        text.set(1250);
+        assertEquals("Score: 1250 pts", text.toString());
+        text.set(-3);
+        assertEquals("Score: -3 pts", text.toString());
+    }
+
+    @Test
+    public void renderFrame_allocatesNothingInSteadyState() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < FRAMES; i++) {
+            renderFrame(i / (float) FRAMES);
+        }
+
+        long baseline = threads.getThreadAllocatedBytes(threadId);
+        long overhead = threads.getThreadAllocatedBytes(threadId) - baseline;
+
+        // Background JIT work can be charged to this thread now and then, so
+        // take the best of a few rounds; a real leak shows up in every round.
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < FRAMES; i++) {
+                renderFrame(i / (float) FRAMES);
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - before - overhead);
+        }
+
+        assertEquals("bytes allocated over " + FRAMES + " frames", 0, allocated);
+    }
+
+    private void renderFrame(float alpha) {
+        world.capture(engine);
+        for (int i = 0; i < world.getGhostCount(); i++) {
+            ghostPainter.draw(canvas, world, i, 50, 0, 0, alpha);
+            atlas.drawGhost(canvas, world, i, 50, 0, 0, alpha);
+        }
+        pacmanPainter.draw(canvas, world, 50, 0, 0, alpha);
+        atlas.drawPacman(canvas, world, 50, 0, 0, alpha);
+        hudPainter.draw(canvas, world, 1080, 1920);
+        frameStats.recordFrame(1000, 2000, 3000, 4000, 0, 16000000);
+        frameStats.recordInputLatency(50000000);
+        overlay.draw(canvas, frameStats, world, 20, 80);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.pacman;
+
+import com.example.pacman.engine.GameEngine;
+import com.example.pacman.engine.Levels;
+import com.example.pacman.engine.WorldSnapshot;
+import java.lang.management.ManagementFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Frames built for the GL backend, counted by the recording backend instead
+ * of reaching a GPU.
+ */
+public class RendererTest {
+    private static final int QUADS_PER_GHOST = 5;
+
+    @Test
+    public void classicMaze_isOneDrawCall() {
+        GameEngine engine = new GameEngine(Levels.classic(), 4, 1L);
+        RecordingRenderer renderer = new RecordingRenderer();
+        WorldSnapshot world = snapshot(engine);
+        renderer.layout(1080, 1920, 50, 65, 410);
+
+        assertTrue(renderer.beginFrame());
+        renderer.drawFrame(world, 0.5f, null);
+        renderer.endFrame();
+
+        assertEquals(1, renderer.getFrameDrawCalls());
+        int actors = 4 * QUADS_PER_GHOST + 1;
+        int dots = engine.getDotsLeft();
+        int walls = renderer.getFrameQuads() - actors - dots - 1;
+        assertTrue("walls are merged into runs: " + walls, walls > 0 && walls < countWallTiles(engine));
+    }
+
+    @Test
+    public void swarm_splitsIntoFullBatches() {
+        GameEngine engine = new GameEngine(Levels.classic(), 1024, 1L);
+        RecordingRenderer renderer = new RecordingRenderer();
+        WorldSnapshot world = snapshot(engine);
+        renderer.layout(1080, 1920, 50, 65, 410);
+
+        renderer.beginFrame();
+        renderer.drawFrame(world, 1f, null);
+        renderer.endFrame();
+
+        int quads = renderer.getFrameQuads();
+        assertTrue(quads > 1024 * QUADS_PER_GHOST);
+        assertEquals((quads + SpriteBatch.MAX_QUADS - 1) / SpriteBatch.MAX_QUADS, renderer.getFrameDrawCalls());
+    }
+
+    @Test
+    public void eatenDots_leaveTheBatch() {
+        GameEngine engine = new GameEngine(Levels.classic(), 4, 1L);
+        RecordingRenderer renderer = new RecordingRenderer();
+        WorldSnapshot world = snapshot(engine);
+        renderer.layout(1080, 1920, 50, 65, 410);
+        renderer.beginFrame();
+        renderer.drawFrame(world, 1f, null);
+        renderer.endFrame();
+        int before = renderer.getFrameQuads();
+        int dotsBefore = engine.getDotsLeft();
+
+        engine.setNextDirection(2);
+        for (int i = 0; i < 20; i++) {
+            engine.tick();
+        }
+        world.capture(engine);
+        renderer.beginFrame();
+        renderer.drawFrame(world, 1f, null);
+        renderer.endFrame();
+
+        assertTrue(engine.getDotsLeft() < dotsBefore);
+        assertEquals(before - (dotsBefore - engine.getDotsLeft()), renderer.getFrameQuads());
+        assertEquals(2, renderer.getFrames());
+    }
+
+    @Test
+    public void frame_allocatesNothingInSteadyState() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        GameEngine engine = new GameEngine(Levels.classic(), 64, 1L);
+        RecordingRenderer renderer = new RecordingRenderer();
+        WorldSnapshot world = snapshot(engine);
+        renderer.layout(1080, 1920, 50, 65, 410);
+        for (int i = 0; i < 2000; i++) {
+            frame(renderer, world, i);
+        }
+
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 2000; i++) {
+                frame(renderer, world, i);
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        assertEquals(0, allocated);
+    }
+
+    private static WorldSnapshot snapshot(GameEngine engine) {
+        WorldSnapshot world = new WorldSnapshot();
+        world.capture(engine);
+        return world;
+    }
+
+    private static void frame(RecordingRenderer renderer, WorldSnapshot world, int i) {
+        renderer.beginFrame();
+        renderer.drawFrame(world, i / 2000f, null);
+        renderer.endFrame();
+    }
+
+    private static int countWallTiles(GameEngine engine) {
+        int count = 0;
+        for (int y = 0; y < engine.getHeightInBlocks(); y++) {
+            for (int x = 0; x < engine.getWidthInBlocks(); x++) {
+                if (engine.isWall(x, y)) count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.pacman;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpriteAtlasTest {
+    private final SpriteAtlas atlas = new SpriteAtlas(new PacmanPainter(), new GhostPainter());
+
+    @Test
+    public void mouthAngles_mapToFramesPerDirection() {
+        assertTrue(atlas.fitFrames(50));
+        assertEquals(SpriteAtlas.MOUTH_FRAMES, atlas.getMouthFrames());
+
+        assertEquals(0, atlas.mouthCell(0, 30));
+        assertEquals(SpriteAtlas.MOUTH_FRAMES - 1, atlas.mouthCell(0, 45));
+        assertEquals(2 * SpriteAtlas.MOUTH_FRAMES, atlas.mouthCell(2, 30));
+        assertEquals(atlas.mouthCell(1, 37), atlas.mouthCell(1, 37.4f));
+    }
+
+    @Test
+    public void wavePhase_wrapsAroundFrames() {
+        atlas.fitFrames(50);
+        int first = atlas.ghostCell(0, 0, 0);
+        assertEquals(first, atlas.ghostCell(0, 0, (float) (2 * Math.PI)));
+        assertEquals(first + SpriteAtlas.WAVE_FRAMES / 2, atlas.ghostCell(0, 0, (float) Math.PI + 0.01f));
+        assertEquals(first + SpriteAtlas.WAVE_FRAMES, atlas.ghostCell(0, 1, 0));
+    }
+
+    @Test
+    public void memory_staysWithinBudget() {
+        assertTrue(atlas.fitFrames(50));
+        assertTrue(atlas.bytesFor(50) <= SpriteAtlas.MAX_BYTES);
+
+        assertTrue(atlas.fitFrames(100));
+        assertTrue(atlas.getWaveFrames() < SpriteAtlas.WAVE_FRAMES);
+        assertTrue(atlas.bytesFor(100) <= SpriteAtlas.MAX_BYTES);
+
+        assertFalse(atlas.fitFrames(2000));
+        assertFalse(atlas.prepare(2000));
+        assertEquals(0, atlas.getMemoryBytes());
+    }
+}
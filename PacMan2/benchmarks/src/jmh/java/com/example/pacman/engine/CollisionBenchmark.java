@@ -0,0 +1,99 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One tick of "ghost swarm" collision work: every actor is re-added to the
+ * {@link SpatialHash} and queried against all the others. {@code allPairs}
+ * runs the same swept test on every pair as the quadratic baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final int MAZE_SCALE = 4;
+    private static final float BLOCK = GameEngine.UNITS_PER_TILE;
+    private static final float SPEED = GameEngine.UNITS_PER_TILE * 9 / 40f;
+
+    @Param({"16", "128", "512", "2048"})
+    public int actors;
+
+    private final SpatialHash hash = new SpatialHash();
+    private final int[] hits = new int[64];
+    private float[] x;
+    private float[] y;
+    private float[] vx;
+    private float[] vy;
+    private float width;
+    private float height;
+
+    @Setup
+    public void setUp() {
+        int[][] maze = Levels.tiled(Levels.classic(), MAZE_SCALE);
+        width = maze[0].length * BLOCK;
+        height = maze.length * BLOCK;
+        hash.reset(maze[0].length, maze.length, BLOCK);
+
+        GameRandom random = new GameRandom(42L);
+        x = new float[actors];
+        y = new float[actors];
+        vx = new float[actors];
+        vy = new float[actors];
+        for (int i = 0; i < actors; i++) {
+            x[i] = random.nextInt((int) width);
+            y[i] = random.nextInt((int) height);
+            int dir = random.nextInt(4);
+            vx[i] = NavigationIndex.DX[dir] * SPEED;
+            vy[i] = NavigationIndex.DY[dir] * SPEED;
+        }
+    }
+
+    private void step() {
+        hash.clear();
+        for (int i = 0; i < actors; i++) {
+            float nx = (x[i] + vx[i] + width) % width;
+            float ny = (y[i] + vy[i] + height) % height;
+            hash.add(x[i], y[i], nx, ny, BLOCK * GameEngine.HIT_RADIUS, SpatialHash.GHOST);
+            x[i] = nx;
+            y[i] = ny;
+        }
+    }
+
+    @Benchmark
+    public int spatialHash() {
+        step();
+        int total = 0;
+        for (int i = 0; i < actors; i++) {
+            total += hash.query(i, SpatialHash.GHOST, hits);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int allPairs() {
+        step();
+        int total = 0;
+        for (int i = 0; i < actors; i++) {
+            for (int j = i + 1; j < actors; j++) {
+                if (hash.sweptHit(i, j)) {
+                    total += 2;
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Full engine ticks on swarm levels with the ghost decide phase on each executor. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionExecutorBenchmark {
+    @Param({"256", "1024", "4096"})
+    public int ghosts;
+
+    @Param({"inline", "forkJoin", "fixedPool"})
+    public String executor;
+
+    private GameEngine engine;
+    private DecisionExecutor decisions;
+
+    @Setup
+    public void setUp() {
+        switch (executor) {
+            case "forkJoin":
+                decisions = DecisionExecutor.forkJoin(ForkJoinPool.commonPool());
+                break;
+            case "fixedPool":
+                decisions = DecisionExecutor.fixedPool(Runtime.getRuntime().availableProcessors());
+                break;
+            default:
+                decisions = DecisionExecutor.inline();
+                break;
+        }
+        engine = new GameEngine(Levels.tiled(Levels.classic(), 4), ghosts, 42L);
+        engine.setDecisionExecutor(decisions);
+    }
+
+    @TearDown
+    public void tearDown() {
+        decisions.shutdown();
+    }
+
+    @Benchmark
+    public long tick() {
+        engine.tick();
+        return engine.getTickCount();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cost of one full {@link GameEngine#tick()}: Pac-Man, every ghost, dots and collisions. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineTickBenchmark {
+    @Param({"4", "16", "64", "256"})
+    public int ghosts;
+
+    @Param({"1", "2", "4"})
+    public int mazeScale;
+
+    private GameEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(Levels.tiled(Levels.classic(), mazeScale), ghosts, 42L);
+    }
+
+    @Benchmark
+    public long tick() {
+        engine.tick();
+        return engine.getTickCount();
+    }
+}
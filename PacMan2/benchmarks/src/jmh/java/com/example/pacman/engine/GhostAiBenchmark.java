@@ -0,0 +1,68 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Ghost decision making in isolation: strategy targets and junction choices for every ghost. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GhostAiBenchmark {
+    @Param({"4", "16", "64", "1024"})
+    public int ghosts;
+
+    @Param({"1", "2", "4"})
+    public int mazeScale;
+
+    private GameEngine engine;
+    private GhostStore store;
+    private TargetContext context;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(Levels.tiled(Levels.classic(), mazeScale), ghosts, 42L);
+        for (int i = 0; i < 200; i++) {
+            engine.tick();
+        }
+        store = engine.getGhostStore();
+        context = engine.getTargetContext();
+    }
+
+    /** Chase target of every ghost, as asked at a junction. */
+    @Benchmark
+    public void chaseTargets(Blackhole blackhole) {
+        for (int i = 0; i < ghosts; i++) {
+            blackhole.consume(store.targetFor(i, context, ModeScheduler.CHASE));
+        }
+    }
+
+    /** A full ghost tick for the whole swarm, straight over the store's arrays. */
+    @Benchmark
+    public void updateAll() {
+        engine.getGhostStore().updateAll(engine);
+    }
+
+    /** Decide phase alone; most ghosts are mid-corridor and return at once. */
+    @Benchmark
+    public void decide() {
+        int mode = engine.getModeScheduler().getMode();
+        DistanceFieldCache fields = engine.getDistanceFields();
+        for (int i = 0; i < ghosts; i++) {
+            store.decide(i, context, mode, engine, fields);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The map draw loop with the canvas replaced by a {@link Blackhole}: the old
+ * full-grid scan that emitted a shape per wall and dot, against the
+ * {@link DotIndex} walk the app uses on top of its cached wall bitmap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MazeDrawBenchmark {
+    private static final int BLOCK_SIZE = 40;
+
+    @Param({"1", "2", "4"})
+    public int mazeScale;
+
+    private GameEngine engine;
+    private DotIndex dots;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(Levels.tiled(Levels.classic(), mazeScale), 4, 42L);
+        dots = new DotIndex(engine);
+        engine.addListener(dots);
+    }
+
+    @Benchmark
+    public void fullGridScan(Blackhole canvas) {
+        for (int x = 0; x < engine.getWidthInBlocks(); x++) {
+            for (int y = 0; y < engine.getHeightInBlocks(); y++) {
+                int left = x * BLOCK_SIZE;
+                int top = y * BLOCK_SIZE;
+
+                switch (engine.getTile(x, y)) {
+                    case 1:
+                    case 4:
+                        canvas.consume(left + top);
+                        break;
+                    case 2:
+                        canvas.consume(left + BLOCK_SIZE / 2 + BLOCK_SIZE / 8);
+                        break;
+                    case 3:
+                        canvas.consume(left + BLOCK_SIZE / 2 + BLOCK_SIZE / 4);
+                        break;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void dotIndexWalk(Blackhole canvas) {
+        int width = engine.getWidthInBlocks();
+        for (int i = 0; i < dots.size(); i++) {
+            int cell = dots.get(i);
+            int x = cell % width;
+            int y = cell / width;
+            int radius = engine.getTile(x, y) == 3 ? BLOCK_SIZE / 4 : BLOCK_SIZE / 8;
+            canvas.consume(x * BLOCK_SIZE + y * BLOCK_SIZE + radius);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Per-tick movement probes. Collisions are measured in {@link CollisionBenchmark}. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementBenchmark {
+    @Param({"4", "16", "64"})
+    public int ghosts;
+
+    private GameEngine engine;
+    private Pacman pacman;
+    private MovementKernel movement;
+    private int[] cells;
+    private int[] positions;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(Levels.classic(), ghosts, 42L);
+        for (int i = 0; i < 200; i++) {
+            engine.tick();
+        }
+        pacman = engine.getPacman();
+
+        movement = engine.getMovement();
+        GhostStore store = engine.getGhostStore();
+        cells = new int[ghosts];
+        positions = new int[ghosts * 2];
+        for (int i = 0; i < ghosts; i++) {
+            cells[i] = store.getY(i) * movement.getWidth() + store.getX(i);
+            positions[2 * i] = store.getWorldX(i);
+            positions[2 * i + 1] = store.getWorldY(i);
+        }
+    }
+
+    @Benchmark
+    public void pacmanCanMove(Blackhole blackhole) {
+        for (int dir = 0; dir < 4; dir++) {
+            blackhole.consume(pacman.canMove(dir, engine));
+        }
+    }
+
+    /** One kernel step for every ghost, each walking straight on through walls and tunnels. */
+    @Benchmark
+    public int advanceAll() {
+        int sum = 0;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = movement.advance(cells[i], i & 3, 90, positions, 2 * i);
+            sum += cells[i];
+        }
+        return sum;
+    }
+}
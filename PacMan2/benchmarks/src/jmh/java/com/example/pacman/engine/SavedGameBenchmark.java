@@ -0,0 +1,53 @@
+package com.example.pacman.engine;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cost of writing and restoring a {@link SavedGame} snapshot, which must stay well under a millisecond. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SavedGameBenchmark {
+    @Param({"1", "4"})
+    public int mazeScale;
+
+    private GameEngine engine;
+    private GameEngine target;
+    private byte[] state;
+
+    @Setup
+    public void setUp() {
+        int[][] maze = Levels.tiled(Levels.classic(), mazeScale);
+        engine = new GameEngine(maze, 4, 42L);
+        for (int i = 0; i < 300; i++) {
+            engine.tick();
+        }
+        target = new GameEngine(maze, 4, 7L);
+        state = SavedGame.write(engine);
+    }
+
+    @Benchmark
+    public byte[] write() {
+        return SavedGame.write(engine);
+    }
+
+    @Benchmark
+    public long restore() throws IOException {
+        SavedGame.restore(target, state);
+        return target.getTickCount();
+    }
+}
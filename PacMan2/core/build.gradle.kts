@@ -0,0 +1,29 @@
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+tasks.register<JavaExec>("batch") {
+    group = "application"
+    description = "Plays headless games in parallel and prints summary statistics. Pass -PbatchArgs=\"games agent threads seed format\"."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.pacman.engine.BatchRunner")
+    args = (project.findProperty("batchArgs") as String?)?.split(" ") ?: emptyList()
+}
+
+tasks.register<JavaExec>("levelPack") {
+    group = "application"
+    description = "Converts a level pack to the binary form. Pass -PlevelPackArgs=\"input output\"."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.pacman.engine.LevelPack")
+    workingDir = rootDir
+    args = (project.findProperty("levelPackArgs") as String?)?.split(" ") ?: emptyList()
+}
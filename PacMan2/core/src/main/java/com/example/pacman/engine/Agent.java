@@ -0,0 +1,10 @@
+package com.example.pacman.engine;
+
+/** Scripted Pac-Man player for headless runs. */
+public interface Agent {
+    /**
+     * Called before every tick; returns the direction to steer towards, or
+     * -1 to keep the current one.
+     */
+    int chooseDirection(GameEngine engine);
+}
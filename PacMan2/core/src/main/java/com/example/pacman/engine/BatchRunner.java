@@ -0,0 +1,127 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongFunction;
+
+/**
+ * Plays many independent headless games in parallel on a {@link ForkJoinPool}
+ * and aggregates the results into {@link BatchStats}.
+ *
+ * <p>Game {@code i} derives its engine and agent seeds from the batch seed and
+ * {@code i} alone, so the statistics are identical whatever the pool size or
+ * scheduling order.
+ */
+public final class BatchRunner {
+    public static final int DEFAULT_MAX_TICKS = 10 * 60 * GameEngine.TICKS_PER_SECOND;
+
+    private static final int GAMES_PER_TASK = 8;
+
+    private final int games;
+    private final long seed;
+    private final int maxTicks;
+    private final LongFunction<Agent> agents;
+
+    /**
+     * @param agents creates the player for one game from a per-game seed
+     */
+    public BatchRunner(int games, long seed, int maxTicks, LongFunction<Agent> agents) {
+        this.games = games;
+        this.seed = seed;
+        this.maxTicks = maxTicks;
+        this.agents = agents;
+    }
+
+    public BatchStats run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    public BatchStats run(ForkJoinPool pool) {
+        BatchStats stats = new BatchStats();
+        pool.invoke(new GamesTask(stats, 0, games));
+        return stats;
+    }
+
+    private void playGame(int index, BatchStats stats) {
+        GameRandom seeds = new GameRandom(seed + index * 0x9E3779B97F4A7C15L);
+        GameEngine engine = new GameEngine(Levels.classic(), 4, seeds.nextLong());
+        Agent agent = agents.apply(seeds.nextLong());
+        engine.addListener(new GameListener() {
+            @Override
+            public void onPacmanCaught(Ghost ghost) {
+                stats.recordDeath(ghost.getName());
+            }
+        });
+
+        while (engine.isGameRunning() && engine.getTickCount() < maxTicks) {
+            int direction = agent.chooseDirection(engine);
+            if (direction >= 0) {
+                engine.setNextDirection(direction);
+            }
+            engine.tick();
+        }
+
+        stats.recordGame(engine.getScore(), engine.getLevel(), engine.getTickCount(), !engine.isGameRunning());
+    }
+
+    private final class GamesTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BatchStats stats;
+        private final int from;
+        private final int to;
+
+        GamesTask(BatchStats stats, int from, int to) {
+            this.stats = stats;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    playGame(i, stats);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GamesTask(stats, from, middle), new GamesTask(stats, middle, to));
+        }
+    }
+
+    /**
+     * Usage: {@code BatchRunner [games] [agent: random|dots] [threads] [seed] [format: csv|json]}.
+     * Prints the summary to stdout and throughput to stderr.
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        String agentName = args.length > 1 ? args[1] : "dots";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+        String format = args.length > 4 ? args[4] : "json";
+
+        LongFunction<Agent> agents;
+        switch (agentName) {
+            case "random":
+                agents = RandomAgent::new;
+                break;
+            case "dots":
+                agents = agentSeed -> new DotSeekingAgent();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown agent: " + agentName);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        BatchStats stats = new BatchRunner(games, seed, DEFAULT_MAX_TICKS, agents).run(pool);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        System.out.print("csv".equals(format) ? stats.toCsv() : stats.toJson() + "\n");
+        System.err.printf("%d games, %d ticks in %.2f s on %d threads (%.0f games/s, %.0f ticks/s)%n",
+                stats.getGames(), stats.getTotalTicks(), seconds, threads,
+                stats.getGames() / seconds, stats.getTotalTicks() / seconds);
+    }
+}
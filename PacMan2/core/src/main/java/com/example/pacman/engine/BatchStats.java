@@ -0,0 +1,155 @@
+package com.example.pacman.engine;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated results of many headless games. Every counter is striped
+ * ({@link LongAdder}, {@link LongAccumulator}, {@link StripedHistogram}) so
+ * worker threads record finished games without locking.
+ */
+public final class BatchStats {
+    private final LongAdder games = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalScore = new LongAdder();
+    private final LongAdder totalLevels = new LongAdder();
+    private final LongAdder totalTicks = new LongAdder();
+    private final LongAccumulator maxScore = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxLevel = new LongAccumulator(Math::max, 0);
+    private final ConcurrentHashMap<String, LongAdder> deathsByGhost = new ConcurrentHashMap<>();
+    private final StripedHistogram scores = new StripedHistogram(500, 40);
+    private final StripedHistogram levels = new StripedHistogram(1, 20);
+    private final StripedHistogram lengths = new StripedHistogram(GameEngine.TICKS_PER_SECOND * 10, 60);
+
+    void recordGame(int score, int level, long ticks, boolean finished) {
+        games.increment();
+        if (!finished) {
+            timeouts.increment();
+        }
+        totalScore.add(score);
+        totalLevels.add(level);
+        totalTicks.add(ticks);
+        maxScore.accumulate(score);
+        maxLevel.accumulate(level);
+        scores.record(score);
+        levels.record(level);
+        lengths.record(ticks);
+    }
+
+    void recordDeath(String ghostName) {
+        deathsByGhost.computeIfAbsent(ghostName, name -> new LongAdder()).increment();
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    /** Games stopped by the tick limit before Pac-Man ran out of lives. */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getTotalTicks() {
+        return totalTicks.sum();
+    }
+
+    public double getAverageScore() {
+        return average(totalScore.sum());
+    }
+
+    public double getAverageLevel() {
+        return average(totalLevels.sum());
+    }
+
+    public double getAverageTicks() {
+        return average(totalTicks.sum());
+    }
+
+    public long getMaxScore() {
+        return maxScore.get();
+    }
+
+    public long getMaxLevel() {
+        return maxLevel.get();
+    }
+
+    /** Lives lost to each ghost, by name, in name order. */
+    public Map<String, Long> getDeathsByGhost() {
+        TreeMap<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : deathsByGhost.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    public StripedHistogram getScoreHistogram() {
+        return scores;
+    }
+
+    public StripedHistogram getLevelHistogram() {
+        return levels;
+    }
+
+    public StripedHistogram getLengthHistogram() {
+        return lengths;
+    }
+
+    private double average(long total) {
+        long count = games.sum();
+        return count == 0 ? 0 : total / (double) count;
+    }
+
+    /** One header line and one value line; deaths get a {@code deaths_<ghost>} column each. */
+    public String toCsv() {
+        Map<String, Long> deaths = getDeathsByGhost();
+        StringBuilder header = new StringBuilder(
+                "games,timeouts,avg_score,max_score,avg_level,max_level,avg_ticks");
+        StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "%d,%d,%.2f,%d,%.3f,%d,%.1f",
+                getGames(), getTimeouts(), getAverageScore(), getMaxScore(),
+                getAverageLevel(), getMaxLevel(), getAverageTicks()));
+        for (Map.Entry<String, Long> entry : deaths.entrySet()) {
+            header.append(",deaths_").append(entry.getKey());
+            row.append(',').append(entry.getValue());
+        }
+        return header.append('\n').append(row).append('\n').toString();
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append(String.format(Locale.ROOT,
+                "{\"games\":%d,\"timeouts\":%d,\"avgScore\":%.2f,\"maxScore\":%d,"
+                        + "\"avgLevel\":%.3f,\"maxLevel\":%d,\"avgTicks\":%.1f,",
+                getGames(), getTimeouts(), getAverageScore(), getMaxScore(),
+                getAverageLevel(), getMaxLevel(), getAverageTicks()));
+
+        json.append("\"deathsByGhost\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : getDeathsByGhost().entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+        }
+        json.append("},");
+
+        appendHistogram(json, "scoreHistogram", scores);
+        json.append(',');
+        appendHistogram(json, "levelHistogram", levels);
+        json.append(',');
+        appendHistogram(json, "lengthHistogram", lengths);
+        return json.append('}').toString();
+    }
+
+    private static void appendHistogram(StringBuilder json, String name, StripedHistogram histogram) {
+        json.append('"').append(name).append("\":{\"bucketWidth\":").append(histogram.getBucketWidth())
+                .append(",\"counts\":[");
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            if (i > 0) json.append(',');
+            json.append(histogram.getCount(i));
+        }
+        json.append("]}");
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.pacman.engine;
+
+/**
+ * The four arcade personalities. Each is a few integer operations on
+ * Pac-Man's cell and heading; nothing is random.
+ */
+final class ClassicStrategies {
+    private ClassicStrategies() {
+    }
+
+    /** Chases Pac-Man's cell. Scatters to the top-right corner. */
+    static final GhostStrategy BLINKY = new Classic("Blinky", 0xFFFF0000, 1, 0) {
+        @Override
+        public int chaseTarget(int ghost, GhostStore ghosts, TargetContext context) {
+            return context.getNavigation().cellOf(context.getPacmanX(), context.getPacmanY());
+        }
+    };
+
+    /** Ambushes four cells ahead of Pac-Man. Scatters to the top-left corner. */
+    static final GhostStrategy PINKY = new Classic("Pinky", 0xFFFF00FF, 0, 0) {
+        @Override
+        public int chaseTarget(int ghost, GhostStore ghosts, TargetContext context) {
+            return ahead(context, 4);
+        }
+    };
+
+    /**
+     * Takes the point two cells ahead of Pac-Man and doubles the vector from
+     * Blinky to it, flanking from the side opposite Blinky. Scatters to the
+     * bottom-right corner.
+     */
+    static final GhostStrategy INKY = new Classic("Inky", 0xFF00FFFF, 1, 1) {
+        @Override
+        public int chaseTarget(int ghost, GhostStore ghosts, TargetContext context) {
+            int dir = context.getPacmanDirection();
+            int pivotX = context.getPacmanX() + 2 * NavigationIndex.DX[dir];
+            int pivotY = context.getPacmanY() + 2 * NavigationIndex.DY[dir];
+            int blinky = ghosts.firstWithStrategy(GhostStore.BLINKY);
+            if (blinky < 0) {
+                return context.getNavigation().clampedCell(pivotX, pivotY);
+            }
+            return context.getNavigation().clampedCell(
+                    2 * pivotX - ghosts.getX(blinky), 2 * pivotY - ghosts.getY(blinky));
+        }
+    };
+
+    /** Chases like Blinky while more than eight cells away, otherwise retreats to the bottom-left corner. */
+    static final GhostStrategy CLYDE = new Classic("Clyde", 0xFFFFA500, 0, 1) {
+        @Override
+        public int chaseTarget(int ghost, GhostStore ghosts, TargetContext context) {
+            int dx = context.getPacmanX() - ghosts.getX(ghost);
+            int dy = context.getPacmanY() - ghosts.getY(ghost);
+            if (dx * dx + dy * dy > 64) {
+                return context.getNavigation().cellOf(context.getPacmanX(), context.getPacmanY());
+            }
+            return ghosts.getScatterTarget(ghost);
+        }
+    };
+
+    private static int ahead(TargetContext context, int cells) {
+        int dir = context.getPacmanDirection();
+        return context.getNavigation().clampedCell(
+                context.getPacmanX() + cells * NavigationIndex.DX[dir],
+                context.getPacmanY() + cells * NavigationIndex.DY[dir]);
+    }
+
+    private abstract static class Classic implements GhostStrategy {
+        private final String name;
+        private final int color;
+        private final int cornerRight;
+        private final int cornerBottom;
+
+        Classic(String name, int color, int cornerRight, int cornerBottom) {
+            this.name = name;
+            this.color = color;
+            this.cornerRight = cornerRight;
+            this.cornerBottom = cornerBottom;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getColor() {
+            return color;
+        }
+
+        @Override
+        public int scatterTarget(NavigationIndex navigation) {
+            return navigation.cellOf(cornerRight * (navigation.getWidth() - 1),
+                    cornerBottom * (navigation.getHeight() - 1));
+        }
+    }
+}
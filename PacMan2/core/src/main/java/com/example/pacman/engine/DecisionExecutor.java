@@ -0,0 +1,136 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the ghost decide phase: one call per ghost index, in any order and on
+ * any thread, returning once all have finished. Because each decision only
+ * writes its own ghost's slot, every executor produces the same state.
+ */
+public abstract class DecisionExecutor {
+    /** Indices handed to one task; small enough to balance, big enough to amortise the hand-off. */
+    static final int GHOSTS_PER_TASK = 64;
+
+    private static final DecisionExecutor INLINE = new DecisionExecutor() {
+        @Override
+        void forEach(int count, IntConsumer body) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+        }
+
+        @Override
+        boolean isInline() {
+            return true;
+        }
+    };
+
+    abstract void forEach(int count, IntConsumer body);
+
+    /** Whether decisions run on the calling thread, so they may share its caches. */
+    boolean isInline() {
+        return false;
+    }
+
+    /** Releases threads owned by this executor, if any. */
+    public void shutdown() {
+    }
+
+    /** Decides on the game thread, one ghost after another. The default. */
+    public static DecisionExecutor inline() {
+        return INLINE;
+    }
+
+    /** Splits the ghosts recursively over {@code pool}. */
+    public static DecisionExecutor forkJoin(ForkJoinPool pool) {
+        return new DecisionExecutor() {
+            @Override
+            void forEach(int count, IntConsumer body) {
+                if (count <= GHOSTS_PER_TASK) {
+                    INLINE.forEach(count, body);
+                } else {
+                    pool.invoke(new RangeTask(body, 0, count));
+                }
+            }
+        };
+    }
+
+    /** Hands equal slices of the ghosts to a dedicated pool of {@code threads} daemon threads. */
+    public static DecisionExecutor fixedPool(int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "GhostDecisions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Future<?>[] futures = new Future<?>[threads];
+
+        return new DecisionExecutor() {
+            @Override
+            void forEach(int count, IntConsumer body) {
+                if (count <= GHOSTS_PER_TASK) {
+                    INLINE.forEach(count, body);
+                    return;
+                }
+                int slice = (count + threads - 1) / threads;
+                for (int t = 0; t < threads; t++) {
+                    int from = t * slice;
+                    int to = Math.min(count, from + slice);
+                    futures[t] = pool.submit(() -> {
+                        for (int i = from; i < to; i++) {
+                            body.accept(i);
+                        }
+                    });
+                }
+                for (int t = 0; t < threads; t++) {
+                    try {
+                        futures[t].get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while deciding", e);
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Ghost decision failed", e.getCause());
+                    } finally {
+                        futures[t] = null;
+                    }
+                }
+            }
+
+            @Override
+            public void shutdown() {
+                pool.shutdown();
+            }
+        };
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer body;
+        private final int from;
+        private final int to;
+
+        RangeTask(IntConsumer body, int from, int to) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GHOSTS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    body.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(body, from, middle), new RangeTask(body, middle, to));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.pacman.engine;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Shortest-path distances from every cell to a target cell, computed by BFS
+ * over the {@link NavigationIndex} and kept in a bounded LRU cache keyed by
+ * target. Once a field is cached, choosing the best exit towards that target
+ * is four array reads no matter how many ghosts ask.
+ *
+ * <p>The cache is indexed directly by cell with an intrusive LRU list, so
+ * lookups do not box keys and an evicted field's array is reused for the next
+ * miss. Call {@link #reset(NavigationIndex)} whenever a new maze is loaded.
+ */
+public final class DistanceFieldCache {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private final int capacity;
+    private NavigationIndex navigation;
+    private int cells;
+    private int[][] fields = new int[0][];
+    private int[] prev = new int[0];
+    private int[] next = new int[0];
+    private int[] queue = new int[0];
+    private int head = -1;
+    private int tail = -1;
+    private int size;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public DistanceFieldCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DistanceFieldCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /** Drops every cached field; the next lookups are computed against {@code navigation}. */
+    public void reset(NavigationIndex navigation) {
+        this.navigation = navigation;
+        int newCells = navigation.getWidth() * navigation.getHeight();
+        if (newCells != cells) {
+            cells = newCells;
+            fields = new int[cells][];
+            prev = new int[cells];
+            next = new int[cells];
+            queue = new int[cells];
+        } else {
+            Arrays.fill(fields, null);
+        }
+        head = -1;
+        tail = -1;
+        size = 0;
+    }
+
+    /** Whether the cached fields were computed against {@code navigation}. */
+    boolean isFor(NavigationIndex navigation) {
+        return this.navigation == navigation;
+    }
+
+    /** Distances from every cell to {@code target}, computing the field on a miss. */
+    public int[] get(int target) {
+        int[] field = fields[target];
+        if (field != null) {
+            hits++;
+            unlink(target);
+            pushFront(target);
+            return field;
+        }
+
+        misses++;
+        if (size >= capacity) {
+            int eldest = tail;
+            unlink(eldest);
+            field = fields[eldest];
+            fields[eldest] = null;
+            size--;
+            evictions++;
+        } else {
+            field = new int[cells];
+        }
+
+        fill(field, target);
+        fields[target] = field;
+        pushFront(target);
+        size++;
+        return field;
+    }
+
+    /**
+     * Exit of {@code cell} that leads closest to {@code target}, taking the
+     * lowest direction on ties, or -1 if no exit reaches it.
+     */
+    public int bestDirection(int cell, int target) {
+        int[] field = get(target);
+        int bestDir = -1;
+        int minDist = UNREACHABLE;
+
+        for (int dir = 0; dir < 4; dir++) {
+            int neighbor = navigation.neighbor(cell, dir);
+            if (neighbor < 0) continue;
+
+            int dist = field[neighbor];
+            if (dist < minDist) {
+                minDist = dist;
+                bestDir = dir;
+            }
+        }
+        return bestDir;
+    }
+
+    private void fill(int[] field, int target) {
+        Arrays.fill(field, UNREACHABLE);
+        field[target] = 0;
+        queue[0] = target;
+        int read = 0;
+        int write = 1;
+
+        while (read < write) {
+            int cell = queue[read++];
+            int dist = field[cell] + 1;
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = navigation.neighbor(cell, dir);
+                if (neighbor >= 0 && field[neighbor] == UNREACHABLE) {
+                    field[neighbor] = dist;
+                    queue[write++] = neighbor;
+                }
+            }
+        }
+    }
+
+    private void unlink(int cell) {
+        int p = prev[cell];
+        int n = next[cell];
+        if (p >= 0) next[p] = n; else head = n;
+        if (n >= 0) prev[n] = p; else tail = p;
+    }
+
+    private void pushFront(int cell) {
+        prev[cell] = -1;
+        next[cell] = head;
+        if (head >= 0) prev[head] = cell;
+        head = cell;
+        if (tail < 0) tail = cell;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : hits / (double) lookups;
+    }
+
+    /** Approximate bytes held by cached fields and the index arrays. */
+    public long getMemoryBytes() {
+        return (long) size * cells * 4 + (long) cells * (8 + 4 + 4 + 4);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "DistanceFieldCache[size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.3f, bytes=%d]",
+                size, capacity, hits, misses, evictions, getHitRate(), getMemoryBytes());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.pacman.engine;
+
+import java.util.Arrays;
+
+/**
+ * Compact list of the cells that still hold a dot or power dot. Removing a
+ * dot is O(1) (the last entry is swapped into its slot), so renderers can
+ * walk only the remaining dots instead of scanning the whole grid. Cells are
+ * row-major ({@code y * width + x}), as in {@link NavigationIndex}.
+ *
+ * <p>An index built on an engine follows it through {@link GameListener}
+ * callbacks on the ticking thread. One built with {@link #DotIndex()}
+ * follows {@link WorldSnapshot}s instead: {@link #sync} compares the
+ * snapshot's dot bits with the last ones it saw, a word at a time.
+ */
+public final class DotIndex implements GameListener {
+    private final GameEngine engine;
+    private int[] cells = new int[0];
+    private int[] slots = new int[0];
+    private int size;
+    private int width;
+    private int mapVersion = -1;
+    private long[] seen = new long[0];
+
+    public DotIndex(GameEngine engine) {
+        this.engine = engine;
+        reload();
+    }
+
+    /** An empty index for {@link #sync}. */
+    public DotIndex() {
+        this.engine = null;
+    }
+
+    public void reload() {
+        TileGrid grid = engine.getGrid();
+        resize(engine.getWidthInBlocks(), engine.getHeightInBlocks());
+        for (int cell = grid.nextDotCell(0); cell >= 0; cell = grid.nextDotCell(cell + 1)) {
+            add(cell);
+        }
+    }
+
+    private void resize(int width, int height) {
+        this.width = width;
+        if (slots.length != width * height) {
+            slots = new int[width * height];
+            cells = new int[width * height];
+        }
+        size = 0;
+        Arrays.fill(slots, -1);
+    }
+
+    private void add(int cell) {
+        slots[cell] = size;
+        cells[size++] = cell;
+    }
+
+    /**
+     * Brings the index up to {@code world}, telling {@code changes} about
+     * every dot eaten since the last sync, or that the maze was reloaded.
+     */
+    public void sync(WorldSnapshot world, GameListener changes) {
+        int words = world.getDotWords();
+        if (world.getMapVersion() != mapVersion || seen.length != words) {
+            mapVersion = world.getMapVersion();
+            if (seen.length != words) {
+                seen = new long[words];
+            }
+            resize(world.getWidthInBlocks(), world.getHeightInBlocks());
+            for (int cell = world.nextDotCell(0); cell >= 0; cell = world.nextDotCell(cell + 1)) {
+                add(cell);
+            }
+            for (int i = 0; i < words; i++) {
+                seen[i] = world.getDotWord(i);
+            }
+            changes.onMapLoaded();
+            return;
+        }
+
+        for (int i = 0; i < words; i++) {
+            long current = world.getDotWord(i);
+            long eaten = seen[i] & ~current;
+            seen[i] = current;
+            while (eaten != 0) {
+                int cell = (i << 6) + Long.numberOfTrailingZeros(eaten);
+                eaten &= eaten - 1;
+                onDotEaten(cell % width, cell / width);
+                changes.onDotEaten(cell % width, cell / width);
+            }
+        }
+    }
+
+    @Override
+    public void onDotEaten(int x, int y) {
+        int cell = y * width + x;
+        int slot = slots[cell];
+        if (slot < 0) return;
+
+        int last = cells[--size];
+        cells[slot] = last;
+        slots[last] = slot;
+        slots[cell] = -1;
+    }
+
+    @Override
+    public void onMapLoaded() {
+        reload();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Row-major cell of the {@code index}-th remaining dot, in no particular order. */
+    public int get(int index) {
+        return cells[index];
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.pacman.engine;
+
+/**
+ * Heads for the nearest remaining dot by BFS over the {@link NavigationIndex},
+ * ignoring ghosts. Search buffers are reused, so a decision does not allocate.
+ */
+public final class DotSeekingAgent implements Agent {
+    private int[] queue = new int[0];
+    private int[] firstStep = new int[0];
+    private int[] visited = new int[0];
+    private int stamp;
+
+    @Override
+    public int chooseDirection(GameEngine engine) {
+        NavigationIndex navigation = engine.getNavigation();
+        int width = navigation.getWidth();
+        int cells = width * navigation.getHeight();
+        if (visited.length != cells) {
+            queue = new int[cells];
+            firstStep = new int[cells];
+            visited = new int[cells];
+            stamp = 0;
+        }
+        stamp++;
+
+        Pacman pacman = engine.getPacman();
+        int start = navigation.cellOf(pacman.getX(), pacman.getY());
+        visited[start] = stamp;
+        int read = 0;
+        int write = 0;
+
+        for (int dir = 0; dir < 4; dir++) {
+            int neighbor = navigation.neighbor(start, dir);
+            if (neighbor >= 0 && visited[neighbor] != stamp) {
+                visited[neighbor] = stamp;
+                firstStep[neighbor] = dir;
+                queue[write++] = neighbor;
+            }
+        }
+
+        while (read < write) {
+            int cell = queue[read++];
+            int tile = engine.getTile(cell % width, cell / width);
+            if (tile == TileGrid.DOT || tile == TileGrid.POWER_DOT) {
+                return firstStep[cell];
+            }
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = navigation.neighbor(cell, dir);
+                if (neighbor >= 0 && visited[neighbor] != stamp) {
+                    visited[neighbor] = stamp;
+                    firstStep[neighbor] = firstStep[cell];
+                    queue[write++] = neighbor;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,665 @@
+package com.example.pacman.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Game rules without any Android dependency. The engine owns the maze, the
+ * actors, score, lives and level, and only moves forward when {@link #tick()}
+ * is called, so it can be driven by the render thread or by a plain JVM loop.
+ *
+ * <p>Actors move in integer world units, {@link #UNITS_PER_TILE} to a tile,
+ * whatever the screen size; only renderers map them to pixels.
+ */
+public class GameEngine {
+    /**
+     * Fixed-point resolution of actor positions. Every speed is a whole
+     * number of units per tick at this resolution.
+     */
+    public static final int UNITS_PER_TILE = 400;
+    /** Rate the movement speeds and timers are tuned for. */
+    public static final int TICKS_PER_SECOND = 30;
+    public static final int RESTART_DELAY_TICKS = 5 * TICKS_PER_SECOND;
+    /** Collision radius of every actor, as a fraction of a tile. */
+    static final float HIT_RADIUS = 0.35f;
+    /** Turns that can wait for their tick; beyond this the oldest is dropped. */
+    static final int MAX_PENDING_TURNS = 8;
+
+    private TileGrid grid;
+    private NavigationIndex navigation;
+    private MovementKernel movement;
+    private final DistanceFieldCache distanceFields = new DistanceFieldCache();
+    /** Caches of the worker threads that have decided for this engine, for the stats. */
+    private final List<DistanceFieldCache> workerCaches = new ArrayList<>();
+    private final ThreadLocal<DistanceFieldCache> workerFields = ThreadLocal.withInitial(() -> {
+        DistanceFieldCache fields = new DistanceFieldCache();
+        synchronized (workerCaches) {
+            workerCaches.add(fields);
+        }
+        return fields;
+    });
+    private final SpatialHash collisions = new SpatialHash();
+    private final IntConsumer decideGhost = this::decideGhost;
+    private DecisionExecutor decisions = DecisionExecutor.inline();
+    private final ModeScheduler modes = new ModeScheduler();
+    private final TargetContext targeting = new TargetContext();
+    private int eatenStreak;
+    private final int[] hits;
+    private Level maze;
+    private LevelSource levelSource;
+    private final int ghostCount;
+    private int widthInBlocks;
+    private int heightInBlocks;
+    private Pacman pacman;
+    private final GhostStore ghostStore;
+    private final List<Ghost> ghosts;
+    private int score = 0;
+    private boolean gameRunning = true;
+    private int lives = 3;
+    private int level = 1;
+    private int gameOverTicks = 0;
+    private long tickCount = 0;
+    private final long seed;
+    private final GameRandom random;
+    /** Turns not yet handed to Pac-Man, oldest first, as a ring from {@code turnHead}. */
+    private final int[] pendingTurns = new int[MAX_PENDING_TURNS];
+    private final long[] pendingTurnTimes = new long[MAX_PENDING_TURNS];
+    private long appliedTurnTime;
+    private int turnHead;
+    private int turnCount;
+    private int mapVersion;
+    private int mazesLoaded;
+    private InputRecording recording;
+    private final ArrayList<GameListener> listeners = new ArrayList<>();
+
+    public GameEngine() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Creates an engine whose every random decision comes from one stream
+     * seeded with {@code seed}. Two engines with the same seed and inputs at
+     * the same ticks stay in identical states.
+     */
+    public GameEngine(long seed) {
+        this(Levels.classic(), 4, seed);
+    }
+
+    /**
+     * Creates an engine for an arbitrary maze, given row by row, and any
+     * number of ghosts. Ghosts beyond the first four reuse the classic four
+     * personalities and spawn points in turn.
+     */
+    public GameEngine(int[][] levelMap, int ghostCount, long seed) {
+        this(Level.of(null, levelMap), ghostCount, seed);
+    }
+
+    /**
+     * Creates an engine that starts on {@code maze}, with actors at its spawn
+     * points. Ghosts beyond the maze's spawn count share spawns in turn.
+     */
+    public GameEngine(Level maze, int ghostCount, long seed) {
+        this.ghostCount = ghostCount;
+        this.hits = new int[Math.max(ghostCount, 1)];
+        this.ghostStore = new GhostStore(ghostCount);
+        ArrayList<Ghost> views = new ArrayList<>(ghostCount);
+        for (int i = 0; i < ghostCount; i++) {
+            views.add(new Ghost(ghostStore, i));
+        }
+        this.ghosts = Collections.unmodifiableList(views);
+        this.seed = seed;
+        this.random = new GameRandom(seed);
+        loadMaze(maze);
+        createActors();
+    }
+
+    private void loadMaze(Level maze) {
+        this.maze = maze;
+        this.widthInBlocks = maze.getWidth();
+        this.heightInBlocks = maze.getHeight();
+        grid = maze.getGrid().copy();
+        grid.resetDots();
+        navigation = new NavigationIndex(this);
+        if (movement == null || movement.getWidth() != widthInBlocks || movement.getHeight() != heightInBlocks) {
+            movement = new MovementKernel(widthInBlocks, heightInBlocks);
+        }
+        distanceFields.reset(navigation);
+        modes.reset();
+    }
+
+    /**
+     * Puts every dot back for a restart or the next round on the same maze.
+     * Walls are unchanged, so the navigation index and path cache stay valid.
+     */
+    private void resetMap() {
+        grid.resetDots();
+        notifyMapLoaded();
+    }
+
+    /**
+     * Sets where the maze for each cleared level comes from. Without a
+     * source, or when it returns null, the current maze is replayed.
+     */
+    public void setLevelSource(LevelSource levelSource) {
+        this.levelSource = levelSource;
+    }
+
+    private void notifyMapLoaded() {
+        mapVersion++;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onMapLoaded();
+        }
+    }
+
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyDotEaten(int x, int y) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onDotEaten(x, y);
+        }
+    }
+
+    private void createActors() {
+        collisions.reset(widthInBlocks, heightInBlocks, UNITS_PER_TILE);
+        int spawn = maze.getPacmanSpawn();
+        pacman = new Pacman(spawn % widthInBlocks, spawn / widthInBlocks);
+        for (int i = 0; i < ghostCount; i++) {
+            spawn = maze.getGhostSpawn(i);
+            ghostStore.spawn(i, spawn % widthInBlocks, spawn / widthInBlocks, i % GhostStore.STRATEGIES,
+                    random.nextLong());
+        }
+        ghostStore.prepare(navigation);
+    }
+
+    /**
+     * Gives ghost {@code ghost} another targeting strategy, either one of the
+     * classic codes or one returned by {@link GhostStore#registerStrategy}.
+     */
+    public void setGhostStrategy(int ghost, int code) {
+        ghostStore.setStrategy(ghost, code);
+    }
+
+    /**
+     * Queues a turn for Pac-Man. Turns are handed over in order, one at the
+     * start of each tick, and the tick a turn is handed over on is the one
+     * stored in the recording, if one is active. A turn into a wall stays
+     * buffered for a short window and is taken as soon as it opens up. Must
+     * be called on the thread that ticks; {@link InputQueue} brings turns
+     * over from other threads.
+     */
+    public void setNextDirection(int direction) {
+        setNextDirection(direction, 0);
+    }
+
+    /**
+     * Same as {@link #setNextDirection(int)} for a turn issued at
+     * {@code issuedNanos}, which {@link #getAppliedTurnTime()} reports on the
+     * tick Pac-Man gets it.
+     */
+    public void setNextDirection(int direction, long issuedNanos) {
+        if (turnCount == MAX_PENDING_TURNS) {
+            turnHead = (turnHead + 1) % MAX_PENDING_TURNS;
+            turnCount--;
+        }
+        int slot = (turnHead + turnCount) % MAX_PENDING_TURNS;
+        pendingTurns[slot] = direction;
+        pendingTurnTimes[slot] = issuedNanos;
+        turnCount++;
+    }
+
+    /**
+     * Issue time of the turn handed to Pac-Man on the last tick, as given to
+     * {@link #setNextDirection(int, long)}, or 0 if no turn was.
+     */
+    public long getAppliedTurnTime() {
+        return appliedTurnTime;
+    }
+
+    /** Turns queued with {@link #setNextDirection} that Pac-Man has not been given yet. */
+    public int getPendingTurns() {
+        return turnCount;
+    }
+
+    /**
+     * Starts logging every applied input and every maze taken from the level
+     * source. Must be called before the first tick, once the ghosts'
+     * strategies are set, so the recording can be replayed from the seed.
+     */
+    public InputRecording startRecording() {
+        if (tickCount != 0) {
+            throw new IllegalStateException("Recording must start before the first tick");
+        }
+        int[] strategies = new int[ghostCount];
+        for (int i = 0; i < ghostCount; i++) {
+            strategies[i] = ghostStore.getStrategy(i);
+        }
+        recording = new InputRecording(seed, maze, mazesLoaded, strategies);
+        return recording;
+    }
+
+    public InputRecording getRecording() {
+        return recording;
+    }
+
+    public void tick() {
+        appliedTurnTime = 0;
+        if (turnCount > 0) {
+            int direction = pendingTurns[turnHead];
+            appliedTurnTime = pendingTurnTimes[turnHead];
+            turnHead = (turnHead + 1) % MAX_PENDING_TURNS;
+            turnCount--;
+            pacman.setNextDirection(direction);
+            if (recording != null) {
+                recording.add(tickCount, direction);
+            }
+        }
+
+        tickCount++;
+
+        if (!gameRunning) {
+            if (++gameOverTicks > RESTART_DELAY_TICKS) {
+                restartGame();
+            }
+            return;
+        }
+
+        pacman.update(this);
+
+        int eaten = grid.eat(pacman.getX(), pacman.getY());
+        if (eaten == TileGrid.DOT) {
+            notifyDotEaten(pacman.getX(), pacman.getY());
+            score += 10;
+        } else if (eaten == TileGrid.POWER_DOT) {
+            notifyDotEaten(pacman.getX(), pacman.getY());
+            score += 50;
+            eatenStreak = 0;
+            ghostStore.frightenAll();
+        }
+
+        if (!ghostStore.anyFrightened() && modes.tick()) {
+            ghostStore.reverseActive();
+        }
+        targeting.set(pacman.getX(), pacman.getY(), pacman.getDirection(), navigation);
+        decisions.forEach(ghostCount, decideGhost);
+        for (int i = 0; i < ghostCount; i++) {
+            ghostStore.move(i, this);
+        }
+        collideActors();
+
+        if (grid.remainingDots() <= 0) {
+            nextLevel();
+        }
+    }
+
+    /**
+     * Decide phase for one ghost, possibly on a worker thread. Nothing the
+     * phase reads is written until every ghost has decided, and each worker
+     * thread keeps its own distance-field cache since fields are pure
+     * functions of the maze.
+     */
+    private void decideGhost(int i) {
+        DistanceFieldCache fields = distanceFields;
+        if (!decisions.isInline()) {
+            fields = workerFields.get();
+            if (!fields.isFor(navigation)) {
+                fields.reset(navigation);
+            }
+        }
+        ghostStore.decide(i, targeting, modes.getMode(), this, fields);
+    }
+
+    /**
+     * Chooses where ghost decisions run each tick. Every executor gives
+     * bit-identical games; parallel ones only pay off with many ghosts.
+     */
+    public void setDecisionExecutor(DecisionExecutor decisions) {
+        this.decisions = decisions;
+    }
+
+    /**
+     * Tests Pac-Man's move this tick against every ghost's with swept circles,
+     * so actors that swap cells between ticks still meet. Hits are handled in
+     * ghost order: eaten ghosts are ignored, frightened ones are eaten for
+     * 200, 400, 800 and then 1600 points per power dot, and the first active
+     * one costs a life and ends the check.
+     */
+    private void collideActors() {
+        float radius = UNITS_PER_TILE * HIT_RADIUS;
+        collisions.clear();
+        int pacmanId = collisions.add(pacman.getPrevWorldX(), pacman.getPrevWorldY(),
+                pacman.getWorldX(), pacman.getWorldY(), radius, SpatialHash.PACMAN);
+        for (int i = 0; i < ghostCount; i++) {
+            collisions.add(ghostStore.getPrevWorldX(i), ghostStore.getPrevWorldY(i),
+                    ghostStore.getWorldX(i), ghostStore.getWorldY(i), radius, SpatialHash.GHOST);
+        }
+
+        int count = collisions.query(pacmanId, SpatialHash.GHOST, hits);
+        for (int i = 0; i < count; i++) {
+            int index = hits[i] - pacmanId - 1;
+            if (ghostStore.isEaten(index)) {
+                continue;
+            }
+            if (ghostStore.isScared(index)) {
+                score += 200 << Math.min(eatenStreak++, 3);
+                ghostStore.markEaten(index);
+            } else {
+                Ghost ghost = ghosts.get(index);
+                for (int j = 0; j < listeners.size(); j++) {
+                    listeners.get(j).onPacmanCaught(ghost);
+                }
+                lives--;
+                if (lives <= 0) {
+                    gameOver();
+                } else {
+                    resetGameObjects();
+                }
+                return;
+            }
+        }
+    }
+
+    /** The collision hash as filled during the last tick. */
+    public SpatialHash getCollisions() {
+        return collisions;
+    }
+
+    private void resetGameObjects() {
+        pacman.reset();
+        ghostStore.resetAll();
+        modes.reset();
+    }
+
+    private void restartGame() {
+        score = 0;
+        lives = 3;
+        level = 1;
+        gameRunning = true;
+        gameOverTicks = 0;
+        resetMap();
+        resetGameObjects();
+    }
+
+    private void nextLevel() {
+        lives++;
+        level++;
+        Level next = null;
+        if (levelSource != null) {
+            next = levelSource.nextLevel();
+            if (recording != null) {
+                recording.addMaze(next);
+            }
+        }
+        if (next != null) {
+            mazesLoaded++;
+            loadMaze(next);
+            createActors();
+            notifyMapLoaded();
+        } else {
+            resetMap();
+            resetGameObjects();
+        }
+    }
+
+    private void gameOver() {
+        gameRunning = false;
+        gameOverTicks = 0;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onGameOver();
+        }
+    }
+
+    public boolean isWall(int x, int y) {
+        if (x < 0 || y < 0 || x >= widthInBlocks || y >= heightInBlocks) {
+            return false;
+        }
+        return grid.isWall(x, y);
+    }
+
+    public NavigationIndex getNavigation() {
+        return navigation;
+    }
+
+    public MovementKernel getMovement() {
+        return movement;
+    }
+
+    /** Pac-Man's cell and heading as captured for this tick's ghost decisions. */
+    public TargetContext getTargetContext() {
+        return targeting;
+    }
+
+    public ModeScheduler getModeScheduler() {
+        return modes;
+    }
+
+    /**
+     * Distance fields used by ghosts deciding on the game thread. With a
+     * parallel {@link DecisionExecutor} each worker has its own; see
+     * {@link #getPathHitRate()} and {@link #getPathMemoryBytes()} for totals.
+     */
+    public DistanceFieldCache getDistanceFields() {
+        return distanceFields;
+    }
+
+    /** Hit rate over every distance-field cache the ghosts have used, the game thread's and each worker's. */
+    public double getPathHitRate() {
+        long hits = distanceFields.getHits();
+        long lookups = hits + distanceFields.getMisses();
+        synchronized (workerCaches) {
+            for (int i = 0; i < workerCaches.size(); i++) {
+                DistanceFieldCache fields = workerCaches.get(i);
+                hits += fields.getHits();
+                lookups += fields.getHits() + fields.getMisses();
+            }
+        }
+        return lookups == 0 ? 0 : hits / (double) lookups;
+    }
+
+    /** Approximate bytes held by every distance-field cache the ghosts have used. */
+    public long getPathMemoryBytes() {
+        long bytes = distanceFields.getMemoryBytes();
+        synchronized (workerCaches) {
+            for (int i = 0; i < workerCaches.size(); i++) {
+                bytes += workerCaches.get(i).getMemoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /** Changes whenever a maze is loaded or its dots are put back. */
+    public int getMapVersion() {
+        return mapVersion;
+    }
+
+    /** How many mazes the level source has supplied, so a restored game can skip as many. */
+    public int getMazesLoaded() {
+        return mazesLoaded;
+    }
+
+    /** The maze being played. */
+    public Level getMaze() {
+        return maze;
+    }
+
+    public TileGrid getGrid() {
+        return grid;
+    }
+
+    public int getTile(int x, int y) {
+        return grid.get(x, y);
+    }
+
+    public int getWidthInBlocks() {
+        return widthInBlocks;
+    }
+
+    public int getHeightInBlocks() {
+        return heightInBlocks;
+    }
+
+    public Pacman getPacman() {
+        return pacman;
+    }
+
+    /** One view per ghost, in store order. */
+    public List<Ghost> getGhosts() {
+        return ghosts;
+    }
+
+    public GhostStore getGhostStore() {
+        return ghostStore;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getDotsLeft() {
+        return grid.remainingDots();
+    }
+
+    public boolean isGameRunning() {
+        return gameRunning;
+    }
+
+    /** Whole seconds until a finished game restarts, counted in ticks. */
+    public int getRestartSecondsLeft() {
+        return RESTART_DELAY_TICKS / TICKS_PER_SECOND - gameOverTicks / TICKS_PER_SECOND;
+    }
+
+    public GameRandom getRandom() {
+        return random;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /** Interpolates a position in world units, jumping straight to {@code to} across a tunnel wrap. */
+    static float lerp(int from, int to, float alpha) {
+        if (Math.abs(to - from) > UNITS_PER_TILE) {
+            return to;
+        }
+        return from + (to - from) * alpha;
+    }
+
+    /** Writes everything {@link #stateHash()} covers, plus the maze itself; see {@link SavedGame}. */
+    void writeState(DataOutputStream out) throws IOException {
+        LevelPack.writeLevel(maze, out);
+        InputRecording.writeVarint(out, mazesLoaded);
+        InputRecording.writeVarint(out, ghostCount);
+        for (int i = 0; i < ghostCount; i++) {
+            InputRecording.writeVarint(out, ghostStore.getStrategy(i));
+        }
+        InputRecording.writeVarint(out, tickCount);
+        InputRecording.writeVarint(out, score);
+        InputRecording.writeVarint(out, lives);
+        InputRecording.writeVarint(out, level);
+        out.writeBoolean(gameRunning);
+        InputRecording.writeVarint(out, gameOverTicks);
+        InputRecording.writeVarint(out, eatenStreak);
+        out.writeLong(random.getState());
+        modes.writeState(out);
+        grid.writeDots(out);
+        pacman.writeState(out);
+        for (int i = 0; i < ghostCount; i++) {
+            ghostStore.writeState(i, out);
+        }
+    }
+
+    /**
+     * Replaces the game with one written by {@link #writeState}. The maze, ghost count and strategies are checked
+     * before anything changes. A restored game is not recorded, since it
+     * cannot be replayed from the seed.
+     */
+    void readState(DataInputStream in) throws IOException {
+        Level saved = LevelPack.readLevel(in);
+        int mazes = (int) InputRecording.readVarint(in);
+        int count = (int) InputRecording.readVarint(in);
+        if (count != ghostCount) {
+            throw new IOException("Saved game has " + count + " ghosts, engine has " + ghostCount);
+        }
+        int[] strategies = new int[ghostCount];
+        for (int i = 0; i < ghostCount; i++) {
+            strategies[i] = (int) InputRecording.readVarint(in);
+            if (strategies[i] >= ghostStore.getStrategyCount()) {
+                throw new IOException("Unknown strategy " + strategies[i]);
+            }
+        }
+
+        if (!maze.sameAs(saved)) {
+            loadMaze(saved);
+        }
+        createActors();
+        for (int i = 0; i < ghostCount; i++) {
+            ghostStore.setStrategy(i, strategies[i]);
+        }
+        mazesLoaded = mazes;
+        tickCount = InputRecording.readVarint(in);
+        score = (int) InputRecording.readVarint(in);
+        lives = (int) InputRecording.readVarint(in);
+        level = (int) InputRecording.readVarint(in);
+        gameRunning = in.readBoolean();
+        gameOverTicks = (int) InputRecording.readVarint(in);
+        eatenStreak = (int) InputRecording.readVarint(in);
+        random.setState(in.readLong());
+        modes.readState(in);
+        grid.readDots(in);
+        pacman.readState(in);
+        for (int i = 0; i < ghostCount; i++) {
+            ghostStore.readState(i, in);
+        }
+
+        turnCount = 0;
+        appliedTurnTime = 0;
+        recording = null;
+        notifyMapLoaded();
+    }
+
+    /**
+     * Hash of everything that affects future ticks: maze contents, score,
+     * lives, level, timers, RNG state and actor positions. Cosmetic animation
+     * state is left out. Used to check that replays and parallel runs match.
+     */
+    public long stateHash() {
+        long h = 1125899906842597L;
+        h = 31 * h + grid.stateHash();
+        h = 31 * h + score;
+        h = 31 * h + lives;
+        h = 31 * h + level;
+        h = 31 * h + (gameRunning ? 1 : 0);
+        h = 31 * h + gameOverTicks;
+        h = 31 * h + tickCount;
+        h = 31 * h + random.getState();
+        h = 31 * h + modes.stateHash();
+        h = 31 * h + eatenStreak;
+        h = 31 * h + pacman.stateHash();
+        for (int i = 0; i < ghostCount; i++) {
+            h = 31 * h + ghostStore.stateHash(i);
+        }
+        return h;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.pacman.engine;
+
+/**
+ * Callbacks fired from inside {@link GameEngine#tick()} so views can update
+ * incrementally instead of rescanning the whole state every frame.
+ */
+public interface GameListener {
+    default void onDotEaten(int x, int y) {
+    }
+
+    default void onMapLoaded() {
+    }
+
+    /** Pac-Man was caught by a ghost that was not frightened; fired before lives are taken. */
+    default void onPacmanCaught(Ghost ghost) {
+    }
+
+    default void onGameOver() {
+    }
+}
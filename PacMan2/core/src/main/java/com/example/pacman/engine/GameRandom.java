@@ -0,0 +1,48 @@
+package com.example.pacman.engine;
+
+/**
+ * SplitMix64 generator whose whole state is one {@code long}, so a game can
+ * be reproduced from its seed and the stream can be saved and restored.
+ * Unlike {@link java.util.Random} it gives the same sequence on every JVM and
+ * Android runtime.
+ */
+public final class GameRandom {
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /** Uniform value in {@code [0, bound)}. */
+    public int nextInt(int bound) {
+        return bounded(nextLong(), bound);
+    }
+
+    /** The SplitMix64 output function, for streams kept as a bare {@code long}. */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static int bounded(long bits, int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        return (int) (((bits >>> 32) * bound) >>> 32);
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.pacman.engine;
+
+/**
+ * One ghost, seen through its slot in a {@link GhostStore}. Views are created
+ * once per engine and never hold state of their own.
+ */
+public class Ghost {
+    public static final int SCARED_TICKS = 7 * GameEngine.TICKS_PER_SECOND;
+
+    private final GhostStore store;
+    private final int index;
+
+    Ghost(GhostStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    public void reset() {
+        store.reset(index);
+    }
+
+    /** Decides and moves this ghost alone, on the calling thread. */
+    public void update(GameEngine engine) {
+        store.decide(index, engine.getTargetContext(), engine.getModeScheduler().getMode(), engine,
+                engine.getDistanceFields());
+        store.move(index, engine);
+    }
+
+    long stateHash() {
+        return store.stateHash(index);
+    }
+
+    public int getIndex() { return index; }
+    public int getStrategy() { return store.getStrategy(index); }
+    public int getX() { return store.getX(index); }
+    public int getY() { return store.getY(index); }
+    public int getWorldX() { return store.getWorldX(index); }
+    public int getWorldY() { return store.getWorldY(index); }
+    /** Left edge in world units, {@code alpha} of the way from the previous tick to this one. */
+    public float getRenderX(float alpha) { return GameEngine.lerp(store.getPrevWorldX(index), store.getWorldX(index), alpha); }
+    public float getRenderY(float alpha) { return GameEngine.lerp(store.getPrevWorldY(index), store.getWorldY(index), alpha); }
+    public int getMode() { return store.getMode(index); }
+    public boolean isScared() { return store.isScared(index); }
+    public boolean isEaten() { return store.isEaten(index); }
+    public String getName() { return store.strategyOf(store.getStrategy(index)).getName(); }
+    public int getColor() { return store.strategyOf(store.getStrategy(index)).getColor(); }
+    public int getDirection() { return store.getDirection(index); }
+    public float getWaveOffset() { return store.getWaveOffset(index); }
+}
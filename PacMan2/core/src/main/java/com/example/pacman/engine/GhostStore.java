@@ -0,0 +1,470 @@
+package com.example.pacman.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * State of every ghost kept in parallel primitive arrays, one slot per
+ * ghost, and updated in one pass over the slots. Each ghost's personality is
+ * an int code into a table of {@link GhostStrategy} plug-ins: the four
+ * classic ones are registered up front and custom ones can be added with
+ * {@link #registerStrategy}. {@link Ghost} objects are thin views over a slot
+ * for code that wants one ghost at a time, such as painters and listeners.
+ *
+ * <p>Every ghost is in one of three modes. Active ghosts follow the
+ * {@link ModeScheduler}: scatter to their home corner or chase Pac-Man, in
+ * both cases along the shortest path to the strategy's target read from the
+ * engine's {@link DistanceFieldCache}. Frightened ghosts wander at random.
+ * Eaten ghosts run back to their spawn the same way and become active again
+ * there. Decisions are only
+ * taken when a ghost enters a new cell or is blocked, and ghosts never turn
+ * back on their own; at a corner the one way on is taken without asking the
+ * strategy, so targets are computed at junctions only.
+ *
+ * <p>A tick has two phases. {@link #decide} updates a ghost's timers, mode
+ * and next direction, reading the rest of the world but writing only that
+ * ghost's slot, and each ghost draws from its own random stream; so the
+ * decide phase may run for all ghosts at once on any threads and still
+ * produce the same state. {@link #move} then advances the ghosts in slot
+ * order on the game thread, turning at cell centres.
+ *
+ * <p>The slot arrays are sized once for the engine's ghost count, so ticking
+ * any number of ghosts allocates nothing.
+ */
+public final class GhostStore {
+    public static final int BLINKY = 0;
+    public static final int PINKY = 1;
+    public static final int INKY = 2;
+    public static final int CLYDE = 3;
+    /** Number of classic strategies, which take codes 0 to 3. */
+    public static final int STRATEGIES = 4;
+
+    public static final int MODE_ACTIVE = 0;
+    public static final int MODE_FRIGHTENED = 1;
+    public static final int MODE_EATEN = 2;
+
+    /** World units per tick. */
+    private static final int SPEED = GameEngine.UNITS_PER_TILE * 9 / 40;
+    private static final int FRIGHTENED_SPEED = SPEED * 7 / 10;
+    private static final int EATEN_SPEED = SPEED * 2;
+    /** Arcade tie-break order when two exits are equally close: up, left, down, right. */
+    private static final int[] PREFERENCE = {3, 2, 1, 0};
+
+    private GhostStrategy[] strategies = {
+            ClassicStrategies.BLINKY, ClassicStrategies.PINKY, ClassicStrategies.INKY, ClassicStrategies.CLYDE
+    };
+    private int strategyCount = STRATEGIES;
+    private int[] scatterTargets = new int[STRATEGIES];
+    private int[] firstSlot = new int[STRATEGIES];
+    private NavigationIndex navigation;
+
+    private final int size;
+    private final int[] strategy;
+    private final int[] startX;
+    private final int[] startY;
+    private final int[] homeCell;
+    private final int[] x;
+    private final int[] y;
+    private final int[] direction;
+    private final int[] nextDirection;
+    private final int[] decisionCell;
+    private final int[] mode;
+    private final int[] frightenedTicks;
+    private final int[] targetCell;
+    /** Positions in world units as {@code x, y} pairs, slot {@code i} at {@code 2 * i}. */
+    private final int[] world;
+    private final int[] prevWorld;
+    private final float[] waveOffset;
+    private final long[] random;
+
+    public GhostStore(int size) {
+        this.size = size;
+        strategy = new int[size];
+        startX = new int[size];
+        startY = new int[size];
+        homeCell = new int[size];
+        x = new int[size];
+        y = new int[size];
+        direction = new int[size];
+        nextDirection = new int[size];
+        decisionCell = new int[size];
+        mode = new int[size];
+        frightenedTicks = new int[size];
+        targetCell = new int[size];
+        world = new int[size * 2];
+        prevWorld = new int[size * 2];
+        waveOffset = new float[size];
+        random = new long[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Adds a targeting plug-in and returns the code to give ghosts with {@link #setStrategy}. */
+    public int registerStrategy(GhostStrategy plugin) {
+        if (strategyCount == strategies.length) {
+            strategies = Arrays.copyOf(strategies, strategyCount * 2);
+            scatterTargets = Arrays.copyOf(scatterTargets, strategyCount * 2);
+            firstSlot = Arrays.copyOf(firstSlot, strategyCount * 2);
+        }
+        int code = strategyCount++;
+        strategies[code] = plugin;
+        if (navigation != null) {
+            prepare(navigation);
+        }
+        return code;
+    }
+
+    /** Number of registered strategies; valid codes are below it. */
+    public int getStrategyCount() {
+        return strategyCount;
+    }
+
+    /** Switches ghost {@code i} to the strategy registered under {@code code}. */
+    public void setStrategy(int i, int code) {
+        if (code < 0 || code >= strategyCount) {
+            throw new IllegalArgumentException("Unknown strategy " + code);
+        }
+        strategy[i] = code;
+        if (navigation != null) {
+            prepare(navigation);
+        }
+    }
+
+    public GhostStrategy strategyOf(int code) {
+        return strategies[code];
+    }
+
+    /**
+     * Caches per-maze lookups: every strategy's scatter corner, each ghost's
+     * home cell and the first ghost of each strategy. Called when a maze is
+     * loaded and after the ghosts are placed.
+     */
+    void prepare(NavigationIndex navigation) {
+        this.navigation = navigation;
+        for (int code = 0; code < strategyCount; code++) {
+            scatterTargets[code] = navigation.nearestOpen(strategies[code].scatterTarget(navigation));
+            firstSlot[code] = -1;
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            firstSlot[strategy[i]] = i;
+            homeCell[i] = navigation.nearestOpen(navigation.clampedCell(startX[i], startY[i]));
+        }
+    }
+
+    /** Places ghost {@code i} at its start cell with a fresh state and random stream. */
+    void spawn(int i, int x, int y, int strategy, long seed) {
+        this.strategy[i] = strategy;
+        random[i] = seed;
+        startX[i] = x;
+        startY[i] = y;
+        direction[i] = 0;
+        targetCell[i] = 0;
+        waveOffset[i] = 0;
+        reset(i);
+    }
+
+    void reset(int i) {
+        x[i] = startX[i];
+        y[i] = startY[i];
+        mode[i] = MODE_ACTIVE;
+        frightenedTicks[i] = 0;
+        nextDirection[i] = direction[i];
+        decisionCell[i] = -1;
+        world[2 * i] = x[i] * GameEngine.UNITS_PER_TILE;
+        world[2 * i + 1] = y[i] * GameEngine.UNITS_PER_TILE;
+        prevWorld[2 * i] = world[2 * i];
+        prevWorld[2 * i + 1] = world[2 * i + 1];
+    }
+
+    void resetAll() {
+        for (int i = 0; i < size; i++) {
+            reset(i);
+        }
+    }
+
+    /** Power dot: every ghost not already eaten turns frightened and reverses. */
+    void frightenAll() {
+        for (int i = 0; i < size; i++) {
+            if (mode[i] == MODE_EATEN) continue;
+            if (mode[i] == MODE_ACTIVE) reverse(i);
+            mode[i] = MODE_FRIGHTENED;
+            frightenedTicks[i] = Ghost.SCARED_TICKS;
+        }
+    }
+
+    /** Whether any ghost is frightened; the scatter/chase timetable stands still meanwhile. */
+    boolean anyFrightened() {
+        for (int i = 0; i < size; i++) {
+            if (mode[i] == MODE_FRIGHTENED) return true;
+        }
+        return false;
+    }
+
+    /** Scatter/chase switch: active ghosts turn back at once, as in the arcade. */
+    void reverseActive() {
+        for (int i = 0; i < size; i++) {
+            if (mode[i] == MODE_ACTIVE) reverse(i);
+        }
+    }
+
+    private void reverse(int i) {
+        direction[i] = (direction[i] + 2) & 3;
+        nextDirection[i] = direction[i];
+    }
+
+    /** Pac-Man caught frightened ghost {@code i}; it heads home. */
+    void markEaten(int i) {
+        mode[i] = MODE_EATEN;
+        frightenedTicks[i] = 0;
+        decisionCell[i] = -1;
+    }
+
+    /** Runs both phases for every ghost on the calling thread. */
+    void updateAll(GameEngine engine) {
+        TargetContext context = engine.getTargetContext();
+        int phase = engine.getModeScheduler().getMode();
+        DistanceFieldCache fields = engine.getDistanceFields();
+        for (int i = 0; i < size; i++) {
+            decide(i, context, phase, engine, fields);
+        }
+        for (int i = 0; i < size; i++) {
+            move(i, engine);
+        }
+    }
+
+    /**
+     * Decide phase for ghost {@code i}: timers, mode and next direction.
+     * Reads the maze, the context and other ghosts' cells but writes nothing
+     * outside slot {@code i}; {@code fields} must not be shared with another
+     * thread.
+     */
+    void decide(int i, TargetContext context, int phase, GameEngine engine, DistanceFieldCache fields) {
+        waveOffset[i] += 0.1f;
+        if (waveOffset[i] > 2 * Math.PI) {
+            waveOffset[i] -= 2 * Math.PI;
+        }
+
+        if (mode[i] == MODE_FRIGHTENED && --frightenedTicks[i] < 0) {
+            mode[i] = MODE_ACTIVE;
+        }
+
+        NavigationIndex navigation = engine.getNavigation();
+        int cell = navigation.cellOf(x[i], y[i]);
+        if (mode[i] == MODE_EATEN && cell == homeCell[i]) {
+            mode[i] = MODE_ACTIVE;
+        }
+        if (cell == decisionCell[i] && navigation.canMove(x[i], y[i], direction[i])) {
+            return;
+        }
+        decisionCell[i] = cell;
+
+        int exits = navigation.getExits(x[i], y[i]);
+        int options = exits & ~(1 << ((direction[i] + 2) & 3));
+        if (options == 0) {
+            options = exits;
+        }
+        if (options == 0) {
+            return;
+        }
+        if (Integer.bitCount(options) == 1) {
+            nextDirection[i] = Integer.numberOfTrailingZeros(options);
+            return;
+        }
+
+        switch (mode[i]) {
+            case MODE_FRIGHTENED:
+                int pick = nextInt(i, Integer.bitCount(options));
+                for (int dir = 0; dir < 4; dir++) {
+                    if ((options & (1 << dir)) != 0 && pick-- == 0) {
+                        nextDirection[i] = dir;
+                        break;
+                    }
+                }
+                break;
+            case MODE_EATEN:
+                targetCell[i] = homeCell[i];
+                nextDirection[i] = closestByPath(cell, options, fields.get(homeCell[i]), navigation);
+                if (nextDirection[i] < 0) {
+                    nextDirection[i] = Integer.numberOfTrailingZeros(options);
+                }
+                break;
+            default:
+                targetCell[i] = targetFor(i, context, phase);
+                nextDirection[i] = closestByPath(cell, options, fields.get(targetCell[i]), navigation);
+                if (nextDirection[i] < 0) {
+                    nextDirection[i] = closestByDistance(cell, options, targetCell[i], navigation);
+                }
+                break;
+        }
+    }
+
+    /** Cell active ghost {@code i} heads for in the given scheduler phase. */
+    int targetFor(int i, TargetContext context, int phase) {
+        if (phase == ModeScheduler.SCATTER) {
+            return scatterTargets[strategy[i]];
+        }
+        return navigation.nearestOpen(strategies[strategy[i]].chaseTarget(i, this, context));
+    }
+
+    /** Exit whose next cell is closest to {@code target} in a straight line; used when no path leads there. */
+    private static int closestByDistance(int cell, int options, int target, NavigationIndex navigation) {
+        int width = navigation.getWidth();
+        int tx = target % width;
+        int ty = target / width;
+        int bestDir = -1;
+        int bestDist = Integer.MAX_VALUE;
+        for (int dir : PREFERENCE) {
+            if ((options & (1 << dir)) == 0) continue;
+            int next = navigation.neighbor(cell, dir);
+            int dx = next % width - tx;
+            int dy = next / width - ty;
+            int dist = dx * dx + dy * dy;
+            if (dist < bestDist) {
+                bestDist = dist;
+                bestDir = dir;
+            }
+        }
+        return bestDir;
+    }
+
+    /** Exit whose next cell is fewest steps from the field's target, or -1 if none reaches it. */
+    private static int closestByPath(int cell, int options, int[] field, NavigationIndex navigation) {
+        int bestDir = -1;
+        int bestDist = DistanceFieldCache.UNREACHABLE;
+        for (int dir : PREFERENCE) {
+            if ((options & (1 << dir)) == 0) continue;
+            int dist = field[navigation.neighbor(cell, dir)];
+            if (dist < bestDist) {
+                bestDist = dist;
+                bestDir = dir;
+            }
+        }
+        return bestDir;
+    }
+
+    /**
+     * Apply phase for ghost {@code i}: one step, turning onto the chosen
+     * direction when the step crosses the centre of the cell. A reversal
+     * takes effect at once.
+     */
+    void move(int i, GameEngine engine) {
+        prevWorld[2 * i] = world[2 * i];
+        prevWorld[2 * i + 1] = world[2 * i + 1];
+        NavigationIndex navigation = engine.getNavigation();
+
+        int step = mode[i] == MODE_FRIGHTENED ? FRIGHTENED_SPEED : (mode[i] == MODE_EATEN ? EATEN_SPEED : SPEED);
+        int dir = direction[i];
+        int next = nextDirection[i];
+        if (next == ((dir + 2) & 3)) {
+            dir = next;
+        }
+
+        int toCenter = toCenter(i, dir);
+        if (next != dir && toCenter >= 0 && toCenter <= step && navigation.canMove(x[i], y[i], next)) {
+            world[2 * i] = x[i] * GameEngine.UNITS_PER_TILE;
+            world[2 * i + 1] = y[i] * GameEngine.UNITS_PER_TILE;
+            step -= toCenter;
+            dir = next;
+        } else if (!navigation.canMove(x[i], y[i], dir)) {
+            step = toCenter > 0 ? Math.min(step, toCenter) : 0;
+        }
+        direction[i] = dir;
+
+        MovementKernel movement = engine.getMovement();
+        int cell = movement.advance(navigation.cellOf(x[i], y[i]), dir, step, world, 2 * i);
+        x[i] = movement.columnOf(cell);
+        y[i] = movement.rowOf(cell);
+    }
+
+    /** World units left before ghost {@code i} reaches its cell centre heading {@code dir}; negative once past it. */
+    private int toCenter(int i, int dir) {
+        switch (dir) {
+            case 0: return x[i] * GameEngine.UNITS_PER_TILE - world[2 * i];
+            case 1: return y[i] * GameEngine.UNITS_PER_TILE - world[2 * i + 1];
+            case 2: return world[2 * i] - x[i] * GameEngine.UNITS_PER_TILE;
+            default: return world[2 * i + 1] - y[i] * GameEngine.UNITS_PER_TILE;
+        }
+    }
+
+    /** Next value in {@code [0, bound)} from ghost {@code i}'s own SplitMix64 stream. */
+    private int nextInt(int i, int bound) {
+        return GameRandom.bounded(GameRandom.mix(random[i] += GameRandom.GOLDEN_GAMMA), bound);
+    }
+
+    long stateHash(int i) {
+        long h = x[i];
+        h = 31 * h + y[i];
+        h = 31 * h + direction[i];
+        h = 31 * h + nextDirection[i];
+        h = 31 * h + decisionCell[i];
+        h = 31 * h + world[2 * i];
+        h = 31 * h + world[2 * i + 1];
+        h = 31 * h + mode[i];
+        h = 31 * h + frightenedTicks[i];
+        h = 31 * h + targetCell[i];
+        h = 31 * h + random[i];
+        return h;
+    }
+
+    void writeState(int i, DataOutputStream out) throws IOException {
+        InputRecording.writeVarint(out, x[i]);
+        InputRecording.writeVarint(out, y[i]);
+        out.writeByte(direction[i]);
+        out.writeByte(nextDirection[i]);
+        out.writeByte(mode[i]);
+        out.writeShort(frightenedTicks[i]);
+        out.writeInt(decisionCell[i]);
+        out.writeInt(targetCell[i]);
+        out.writeInt(world[2 * i]);
+        out.writeInt(world[2 * i + 1]);
+        out.writeFloat(waveOffset[i]);
+        out.writeLong(random[i]);
+    }
+
+    /** Reads what {@link #writeState} wrote into slot {@code i}; its strategy and start cell are kept. */
+    void readState(int i, DataInputStream in) throws IOException {
+        x[i] = (int) InputRecording.readVarint(in);
+        y[i] = (int) InputRecording.readVarint(in);
+        direction[i] = in.readUnsignedByte() & 3;
+        nextDirection[i] = in.readUnsignedByte() & 3;
+        mode[i] = Math.min(in.readUnsignedByte(), MODE_EATEN);
+        frightenedTicks[i] = in.readShort();
+        decisionCell[i] = in.readInt();
+        targetCell[i] = in.readInt();
+        world[2 * i] = in.readInt();
+        world[2 * i + 1] = in.readInt();
+        prevWorld[2 * i] = world[2 * i];
+        prevWorld[2 * i + 1] = world[2 * i + 1];
+        waveOffset[i] = in.readFloat();
+        random[i] = in.readLong();
+    }
+
+    /** Lowest slot using strategy {@code code}, or -1; Inky uses it to find Blinky. */
+    public int firstWithStrategy(int code) {
+        return code < strategyCount ? firstSlot[code] : -1;
+    }
+
+    /** Scatter corner of ghost {@code i}'s strategy on the current maze. */
+    public int getScatterTarget(int i) {
+        return scatterTargets[strategy[i]];
+    }
+
+    public int getStrategy(int i) { return strategy[i]; }
+    public int getX(int i) { return x[i]; }
+    public int getY(int i) { return y[i]; }
+    public int getDirection(int i) { return direction[i]; }
+    public int getMode(int i) { return mode[i]; }
+    public int getTargetCell(int i) { return targetCell[i]; }
+    public boolean isScared(int i) { return mode[i] == MODE_FRIGHTENED; }
+    public boolean isEaten(int i) { return mode[i] == MODE_EATEN; }
+    /** Left edge of ghost {@code i} in world units ({@link GameEngine#UNITS_PER_TILE} per tile). */
+    public int getWorldX(int i) { return world[2 * i]; }
+    public int getWorldY(int i) { return world[2 * i + 1]; }
+    public int getPrevWorldX(int i) { return prevWorld[2 * i]; }
+    public int getPrevWorldY(int i) { return prevWorld[2 * i + 1]; }
+    public float getWaveOffset(int i) { return waveOffset[i]; }
+}
@@ -0,0 +1,23 @@
+package com.example.pacman.engine;
+
+/**
+ * How one kind of ghost picks the cell it heads for. Strategies are asked
+ * only when a ghost reaches a junction, and must not change any state: the
+ * decide phase may call them for many ghosts on several threads at once.
+ * Register custom ones with {@link GhostStore#registerStrategy}.
+ */
+public interface GhostStrategy {
+    String getName();
+
+    /** ARGB body color. */
+    int getColor();
+
+    /** Home corner for scatter mode; asked once per maze, the result is cached. */
+    int scatterTarget(NavigationIndex navigation);
+
+    /**
+     * Cell to head for in chase mode. May lie inside a wall or be clamped to
+     * the edge; the store moves it to the nearest open cell.
+     */
+    int chaseTarget(int ghost, GhostStore ghosts, TargetContext context);
+}
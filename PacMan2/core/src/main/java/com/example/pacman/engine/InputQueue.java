@@ -0,0 +1,88 @@
+package com.example.pacman.engine;
+
+/**
+ * Lock-free ring of timestamped turn commands from one producer thread (the
+ * UI thread, for touch and keys alike) to one consumer (the game thread).
+ * The producer publishes a slot by advancing {@code tail} and the consumer
+ * frees it by advancing {@code head}; both are volatile, which orders the
+ * slot writes before the index that makes them visible. Nothing allocates
+ * after construction.
+ *
+ * <p>Each tick drains only the commands issued up to the tick's own time,
+ * so when several ticks run back to back to catch up, every turn lands on
+ * the tick it was meant for instead of the last one winning.
+ */
+public final class InputQueue {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final int[] directions;
+    private final long[] times;
+    private final int mask;
+    private volatile long head;
+    private volatile long tail;
+    private volatile long dropped;
+
+    public InputQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** {@code capacity} is rounded up to a power of two. */
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        directions = new int[size];
+        times = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Producer side: queues a turn issued at {@code timeNanos} on the
+     * {@link System#nanoTime()} clock. Returns false, and counts a drop, when
+     * the consumer has fallen a full ring behind.
+     */
+    public boolean offer(int direction, long timeNanos) {
+        long t = tail;
+        if (t - head == directions.length) {
+            dropped++;
+            return false;
+        }
+        int slot = (int) t & mask;
+        directions[slot] = direction;
+        times[slot] = timeNanos;
+        tail = t + 1;
+        return true;
+    }
+
+    /**
+     * Consumer side: hands every command issued up to {@code untilNanos} to
+     * the engine with their issue times, in order; the engine gives them to
+     * Pac-Man one per tick. Returns how many were taken.
+     */
+    public int drainTo(GameEngine engine, long untilNanos) {
+        long h = head;
+        long t = tail;
+        int taken = 0;
+        while (h < t) {
+            int slot = (int) h & mask;
+            long time = times[slot];
+            if (time > untilNanos) break;
+            engine.setNextDirection(directions[slot], time);
+            h++;
+            taken++;
+        }
+        head = h;
+        return taken;
+    }
+
+    /** Commands waiting to be drained. */
+    public int size() {
+        return (int) (tail - head);
+    }
+
+    public int capacity() {
+        return directions.length;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+}
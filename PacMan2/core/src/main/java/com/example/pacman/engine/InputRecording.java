@@ -0,0 +1,234 @@
+package com.example.pacman.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Inputs applied to a {@link GameEngine}, with the tick at which each one
+ * took effect, plus everything needed to set the same game up again: the
+ * seed, the maze it started on, each ghost's strategy and every maze the
+ * level source handed out along the way. That is enough to replay a game
+ * exactly, whichever level pack it was played from; the screen size plays
+ * no part in the simulation.
+ *
+ * <p>Binary layout: magic {@code "PMRC"}, a version byte, the seed (8
+ * bytes), how many mazes the level source had supplied before recording
+ * began, the ghost count and each ghost's strategy code, the starting maze
+ * in the {@link LevelPack} binary form, the event count, then one entry per
+ * event: a varint tick delta followed by the direction byte (0-3). Last come
+ * the number of times the level source was asked for a maze and, for each,
+ * a {@code 0} byte for "replay the current maze" or a {@code 1} byte and the
+ * maze. Counts are varints. Older versions did not record the mazes and are
+ * rejected.
+ */
+public final class InputRecording {
+    private static final int MAGIC = 0x504D5243;
+    private static final int VERSION = 3;
+    /** Sanity bound on the ghost count read from a file. */
+    private static final int MAX_GHOSTS = 1024;
+
+    private final long seed;
+    private final Level start;
+    private final int mazesLoaded;
+    private final int[] strategies;
+    private long[] ticks = new long[64];
+    private int[] events = new int[64];
+    private int size;
+    private Level[] mazes = new Level[4];
+    private int mazeCount;
+
+    /**
+     * Empty recording of a game with {@code seed} that starts on
+     * {@code start}, after the level source had supplied
+     * {@code mazesLoaded} mazes, with one ghost per entry of
+     * {@code strategies}.
+     */
+    InputRecording(long seed, Level start, int mazesLoaded, int[] strategies) {
+        this.seed = seed;
+        this.start = start;
+        this.mazesLoaded = mazesLoaded;
+        this.strategies = strategies;
+    }
+
+    void add(long tick, int event) {
+        if (size == ticks.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+            events = Arrays.copyOf(events, size * 2);
+        }
+        ticks[size] = tick;
+        events[size] = event;
+        size++;
+    }
+
+    /** Result of one call to the level source; null when it had no new maze. */
+    void addMaze(Level maze) {
+        if (mazeCount == mazes.length) {
+            mazes = Arrays.copyOf(mazes, mazeCount * 2);
+        }
+        mazes[mazeCount++] = maze;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Level getStart() {
+        return start;
+    }
+
+    /** Mazes the level source had supplied before recording began: the position in the level pack. */
+    public int getMazesLoaded() {
+        return mazesLoaded;
+    }
+
+    public int getGhostCount() {
+        return strategies.length;
+    }
+
+    /** Times the level source was asked for a maze during the recording. */
+    public int getMazeRequests() {
+        return mazeCount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTick(int index) {
+        return ticks[index];
+    }
+
+    public int getEvent(int index) {
+        return events[index];
+    }
+
+    /**
+     * Builds a fresh engine on the recorded maze, ghosts and seed, with the
+     * recorded mazes as its level source, and plays it for {@code tickCount}
+     * ticks, feeding every event at its recorded tick.
+     *
+     * @throws IllegalStateException if a ghost used a custom strategy,
+     *         which the replay has no way to rebuild
+     */
+    public GameEngine replay(long tickCount) {
+        GameEngine engine = new GameEngine(start, strategies.length, seed);
+        for (int i = 0; i < strategies.length; i++) {
+            if (strategies[i] >= GhostStore.STRATEGIES) {
+                throw new IllegalStateException("Ghost " + i + " used custom strategy " + strategies[i]);
+            }
+            engine.setGhostStrategy(i, strategies[i]);
+        }
+        engine.setLevelSource(new LevelSource() {
+            private int request;
+
+            @Override
+            public Level nextLevel() {
+                return request < mazeCount ? mazes[request++] : null;
+            }
+        });
+        int next = 0;
+        for (long tick = 0; tick < tickCount; tick++) {
+            while (next < size && ticks[next] == tick) {
+                engine.setNextDirection(events[next]);
+                next++;
+            }
+            engine.tick();
+        }
+        return engine;
+    }
+
+    public void writeTo(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        writeVarint(out, mazesLoaded);
+        writeVarint(out, strategies.length);
+        for (int strategy : strategies) {
+            writeVarint(out, strategy);
+        }
+        LevelPack.writeLevel(start, out);
+        writeVarint(out, size);
+
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            writeVarint(out, ticks[i] - previous);
+            previous = ticks[i];
+            out.writeByte(events[i]);
+        }
+
+        writeVarint(out, mazeCount);
+        for (int i = 0; i < mazeCount; i++) {
+            if (mazes[i] == null) {
+                out.writeByte(0);
+            } else {
+                out.writeByte(1);
+                LevelPack.writeLevel(mazes[i], out);
+            }
+        }
+        out.flush();
+    }
+
+    public static InputRecording readFrom(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an input recording");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+
+        long seed = in.readLong();
+        int mazesLoaded = (int) readVarint(in);
+        long ghosts = readVarint(in);
+        if (ghosts < 1 || ghosts > MAX_GHOSTS) {
+            throw new IOException("Bad ghost count " + ghosts);
+        }
+        int[] strategies = new int[(int) ghosts];
+        for (int i = 0; i < strategies.length; i++) {
+            strategies[i] = (int) readVarint(in);
+        }
+        InputRecording recording = new InputRecording(seed, LevelPack.readLevel(in), mazesLoaded, strategies);
+
+        long count = readVarint(in);
+        long tick = 0;
+        for (long i = 0; i < count; i++) {
+            tick += readVarint(in);
+            recording.add(tick, in.readUnsignedByte() & 3);
+        }
+
+        long requests = readVarint(in);
+        for (long i = 0; i < requests; i++) {
+            recording.addMaze(in.readUnsignedByte() == 0 ? null : LevelPack.readLevel(in));
+        }
+        return recording;
+    }
+
+    static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 63) {
+                throw new IOException("Malformed varint");
+            }
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.pacman.engine;
+
+import java.util.Arrays;
+
+/**
+ * One maze: its tiles, where Pac-Man and each ghost start, and the ghost-house
+ * gate. Spawn points are cells, indexed row-major like {@link TileGrid}.
+ * Play never changes a level: every engine eats from its own copy of the
+ * grid, so one level can back any number of engines at once.
+ */
+public final class Level {
+    private static final int[] CLASSIC_PACMAN = {9, 16};
+    private static final int[][] CLASSIC_GHOSTS = {{9, 10}, {8, 10}, {10, 10}, {9, 11}};
+
+    private final String name;
+    private final TileGrid grid;
+    private final int pacmanSpawn;
+    private final int[] ghostSpawns;
+    private final int gateCell;
+
+    Level(String name, TileGrid grid, int pacmanSpawn, int[] ghostSpawns) {
+        if (ghostSpawns.length == 0) {
+            throw new IllegalArgumentException("Level " + name + " has no ghost spawn");
+        }
+        this.name = name;
+        this.grid = grid;
+        this.pacmanSpawn = pacmanSpawn;
+        this.ghostSpawns = ghostSpawns;
+        this.gateCell = grid.firstGateCell();
+    }
+
+    /**
+     * Wraps a maze given row by row, with Pac-Man and the ghosts at the
+     * classic maze's spawn points.
+     */
+    public static Level of(String name, int[][] levelMap) {
+        TileGrid grid = new TileGrid(levelMap);
+        int width = grid.getWidth();
+        int[] ghosts = new int[CLASSIC_GHOSTS.length];
+        for (int i = 0; i < ghosts.length; i++) {
+            ghosts[i] = CLASSIC_GHOSTS[i][1] * width + CLASSIC_GHOSTS[i][0];
+        }
+        return new Level(name, grid, CLASSIC_PACMAN[1] * width + CLASSIC_PACMAN[0], ghosts);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** The maze as loaded, with every dot in place; not to be eaten from. */
+    public TileGrid getGrid() {
+        return grid;
+    }
+
+    public int getWidth() {
+        return grid.getWidth();
+    }
+
+    public int getHeight() {
+        return grid.getHeight();
+    }
+
+    public int getPacmanSpawn() {
+        return pacmanSpawn;
+    }
+
+    public int getGhostSpawnCount() {
+        return ghostSpawns.length;
+    }
+
+    /** Start cell of ghost {@code index}; extra ghosts reuse the spawns in turn. */
+    public int getGhostSpawn(int index) {
+        return ghostSpawns[index % ghostSpawns.length];
+    }
+
+    /** Whether {@code other} plays the same: tiles and spawn points, whatever its name. */
+    boolean sameAs(Level other) {
+        return pacmanSpawn == other.pacmanSpawn
+                && Arrays.equals(ghostSpawns, other.ghostSpawns) && grid.sameLayout(other.grid);
+    }
+
+    /** Cell of the ghost-house gate, or -1 if the maze has none. */
+    public int getGateCell() {
+        return gateCell;
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.pacman.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A sequence of levels read one at a time from a stream, so a pack of
+ * hundreds of mazes never has to be held in memory. Each level is parsed
+ * straight into its {@link TileGrid}; there is no intermediate tile array.
+ *
+ * <p>Text form, for authoring. Lines starting with {@code ;} are comments.
+ * <pre>
+ * level Classic
+ * size 19 22
+ * pacman 9 16
+ * ghost 9 10
+ * ghost 8 10
+ * maze
+ * ###################
+ * #........#........#
+ * ...
+ * </pre>
+ * {@code maze} is followed by exactly {@code height} rows using {@code #}
+ * wall, {@code .} dot, {@code o} power dot, {@code -} gate and space for
+ * empty; short rows are padded with empty cells. Spawns are given as
+ * coordinates rather than marked in the maze since a ghost may start inside
+ * a wall.
+ *
+ * <p>Binary form: magic {@code "PMLV"} and a version byte, then for each
+ * level a {@code 1} byte, the name (modified UTF-8), width, height, Pac-Man
+ * spawn cell, ghost count and ghost spawn cells as varints, and the tiles as
+ * row-major runs, each a varint {@code length << 3 | tile}. A {@code 0} byte
+ * ends the pack.
+ */
+public final class LevelPack implements Closeable {
+    private static final int MAGIC = 0x504D4C56;
+    private static final int VERSION = 1;
+    /** Widest and tallest maze either form accepts, so a bad size cannot exhaust memory. */
+    static final int MAX_SIDE = 1024;
+
+    private final DataInputStream binary;
+    private final BufferedReader text;
+    private int lineNumber;
+    private boolean finished;
+
+    private LevelPack(DataInputStream binary, BufferedReader text) {
+        this.binary = binary;
+        this.text = text;
+    }
+
+    /** Opens a pack in either form, telling them apart by the binary magic. */
+    public static LevelPack open(InputStream stream) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(stream);
+        in.mark(4);
+        DataInputStream data = new DataInputStream(in);
+        byte[] head = new byte[4];
+        int read = 0;
+        while (read < 4) {
+            int n = in.read(head, read, 4 - read);
+            if (n < 0) break;
+            read += n;
+        }
+        if (read == 4 && ((head[0] & 0xFF) << 24 | (head[1] & 0xFF) << 16 | (head[2] & 0xFF) << 8 | (head[3] & 0xFF)) == MAGIC) {
+            int version = data.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported level pack version " + version);
+            }
+            return new LevelPack(data, null);
+        }
+        in.reset();
+        return new LevelPack(null, new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    /** The next level in the pack, or null once every level has been read. */
+    public Level next() throws IOException {
+        if (finished) return null;
+        Level level = binary != null ? readBinary() : readText();
+        if (level == null) {
+            finished = true;
+        }
+        return level;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (binary != null) binary.close();
+        if (text != null) text.close();
+    }
+
+    private Level readText() throws IOException {
+        String name = null;
+        int width = -1;
+        int height = -1;
+        int pacmanX = -1;
+        int pacmanY = -1;
+        int[] ghosts = new int[8];
+        int ghostCount = 0;
+
+        String line;
+        while ((line = text.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.charAt(0) == ';') continue;
+
+            String[] parts = trimmed.split("\\s+");
+            switch (parts[0]) {
+                case "level":
+                    name = trimmed.substring(5).trim();
+                    break;
+                case "size":
+                    width = parseInt(parts, 1);
+                    height = parseInt(parts, 2);
+                    if (width <= 0 || height <= 0 || width > MAX_SIDE || height > MAX_SIDE) {
+                        throw error("Bad maze size");
+                    }
+                    break;
+                case "pacman":
+                    pacmanX = parseInt(parts, 1);
+                    pacmanY = parseInt(parts, 2);
+                    break;
+                case "ghost":
+                    if (ghostCount * 2 == ghosts.length) {
+                        ghosts = Arrays.copyOf(ghosts, ghosts.length * 2);
+                    }
+                    ghosts[ghostCount * 2] = parseInt(parts, 1);
+                    ghosts[ghostCount * 2 + 1] = parseInt(parts, 2);
+                    ghostCount++;
+                    break;
+                case "maze":
+                    if (width < 0) throw error("size must come before maze");
+                    if (pacmanX < 0) throw error("Level " + name + " has no pacman spawn");
+                    if (ghostCount == 0) throw error("Level " + name + " has no ghost spawn");
+
+                    int pacman = cellOf(pacmanX, pacmanY, width, height);
+                    int[] ghostCells = new int[ghostCount];
+                    for (int i = 0; i < ghostCount; i++) {
+                        ghostCells[i] = cellOf(ghosts[i * 2], ghosts[i * 2 + 1], width, height);
+                    }
+                    return new Level(name, readRows(width, height), pacman, ghostCells);
+                default:
+                    throw error("Unknown keyword " + parts[0]);
+            }
+        }
+        if (name != null || width >= 0 || pacmanX >= 0 || ghostCount > 0) {
+            throw error("Level " + name + " has no maze");
+        }
+        return null;
+    }
+
+    private TileGrid readRows(int width, int height) throws IOException {
+        TileGrid grid = new TileGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            String row = text.readLine();
+            lineNumber++;
+            if (row == null) throw error("Maze ends after " + y + " of " + height + " rows");
+            if (row.length() > width) throw error("Row is wider than " + width);
+
+            for (int x = 0; x < row.length(); x++) {
+                grid.setInitial(y * width + x, tileOf(row.charAt(x)));
+            }
+        }
+        grid.resetDots();
+        return grid;
+    }
+
+    private int tileOf(char c) throws IOException {
+        switch (c) {
+            case ' ': return TileGrid.EMPTY;
+            case '#': return TileGrid.WALL;
+            case '.': return TileGrid.DOT;
+            case 'o': return TileGrid.POWER_DOT;
+            case '-': return TileGrid.GATE;
+            default: throw error("Unknown tile '" + c + "'");
+        }
+    }
+
+    private int cellOf(int x, int y, int width, int height) throws IOException {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            throw error("Spawn " + x + "," + y + " is outside the maze");
+        }
+        return y * width + x;
+    }
+
+    private int parseInt(String[] parts, int index) throws IOException {
+        if (index >= parts.length) throw error("Missing value for " + parts[0]);
+        try {
+            return Integer.parseInt(parts[index]);
+        } catch (NumberFormatException e) {
+            throw error("Bad number " + parts[index]);
+        }
+    }
+
+    private IOException error(String message) {
+        return new IOException("Line " + lineNumber + ": " + message);
+    }
+
+    private Level readBinary() throws IOException {
+        if (binary.readUnsignedByte() == 0) {
+            return null;
+        }
+        return readLevel(binary);
+    }
+
+    /**
+     * Reads one level in the binary form, after its leading {@code 1} byte.
+     * Sizes and spawns are checked as in the text form before anything is
+     * allocated, so damaged data fails with an {@link IOException}.
+     */
+    static Level readLevel(DataInputStream binary) throws IOException {
+        String name = binary.readUTF();
+        long width = InputRecording.readVarint(binary);
+        long height = InputRecording.readVarint(binary);
+        if (width <= 0 || height <= 0 || width > MAX_SIDE || height > MAX_SIDE) {
+            throw new IOException("Bad maze size " + width + "x" + height + " in level " + name);
+        }
+        int cells = (int) (width * height);
+        int pacman = spawnCell(binary, cells, name);
+        long ghostCount = InputRecording.readVarint(binary);
+        if (ghostCount <= 0 || ghostCount > cells) {
+            throw new IOException("Level " + name + " has " + ghostCount + " ghost spawns");
+        }
+        int[] ghosts = new int[(int) ghostCount];
+        for (int i = 0; i < ghosts.length; i++) {
+            ghosts[i] = spawnCell(binary, cells, name);
+        }
+
+        TileGrid grid = new TileGrid((int) width, (int) height);
+        int cell = 0;
+        while (cell < cells) {
+            long run = InputRecording.readVarint(binary);
+            int tile = (int) (run & 7);
+            long end = cell + (run >>> 3);
+            if (end > cells) throw new IOException("Tile runs overflow level " + name);
+            if (tile != TileGrid.EMPTY) {
+                for (int c = cell; c < end; c++) {
+                    grid.setInitial(c, tile);
+                }
+            }
+            cell = (int) end;
+        }
+        grid.resetDots();
+        return new Level(name, grid, pacman, ghosts);
+    }
+
+    private static int spawnCell(DataInputStream binary, int cells, String name) throws IOException {
+        long cell = InputRecording.readVarint(binary);
+        if (cell < 0 || cell >= cells) {
+            throw new IOException("Spawn cell " + cell + " is outside level " + name);
+        }
+        return (int) cell;
+    }
+
+    /** Writes {@code levels} in the binary form, with their dots as loaded. */
+    public static void writeBinary(List<Level> levels, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        for (Level level : levels) {
+            out.writeByte(1);
+            writeLevel(level, out);
+        }
+        out.writeByte(0);
+        out.flush();
+    }
+
+    /** Writes one level in the binary form, without its leading {@code 1} byte. */
+    static void writeLevel(Level level, DataOutputStream out) throws IOException {
+        out.writeUTF(level.getName() != null ? level.getName() : "");
+        InputRecording.writeVarint(out, level.getWidth());
+        InputRecording.writeVarint(out, level.getHeight());
+        InputRecording.writeVarint(out, level.getPacmanSpawn());
+        InputRecording.writeVarint(out, level.getGhostSpawnCount());
+        for (int i = 0; i < level.getGhostSpawnCount(); i++) {
+            InputRecording.writeVarint(out, level.getGhostSpawn(i));
+        }
+
+        TileGrid grid = level.getGrid();
+        int cells = level.getWidth() * level.getHeight();
+        int cell = 0;
+        while (cell < cells) {
+            int tile = grid.getInitial(cell);
+            int end = cell + 1;
+            while (end < cells && grid.getInitial(end) == tile) {
+                end++;
+            }
+            InputRecording.writeVarint(out, (long) (end - cell) << 3 | tile);
+            cell = end;
+        }
+    }
+
+    /** Usage: {@code LevelPack <input pack> <output.bin>}. Converts a pack to the binary form. */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: LevelPack <input pack> <output.bin>");
+            System.exit(2);
+        }
+        List<Level> levels = new ArrayList<>();
+        try (LevelPack pack = open(new FileInputStream(args[0]))) {
+            Level level;
+            while ((level = pack.next()) != null) {
+                levels.add(level);
+            }
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(args[1]))) {
+            writeBinary(levels, out);
+        }
+        System.err.println(levels.size() + " levels written to " + args[1]);
+    }
+}
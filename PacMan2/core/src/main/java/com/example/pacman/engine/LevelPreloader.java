@@ -0,0 +1,85 @@
+package com.example.pacman.engine;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@link LevelSource} over a {@link LevelPack} that parses the following level
+ * on a background thread while the current one is played, so clearing a
+ * level only picks up an already built maze. Once the pack runs out, or a
+ * level fails to load, the current maze is replayed.
+ */
+public final class LevelPreloader implements LevelSource {
+    private final LevelPack pack;
+    private final ExecutorService loader;
+    private Future<Level> pending;
+    private volatile IOException error;
+
+    public LevelPreloader(LevelPack pack) {
+        this.pack = pack;
+        this.loader = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "LevelPreloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pending = loader.submit(pack::next);
+    }
+
+    @Override
+    public Level nextLevel() {
+        if (pending == null) return null;
+
+        Level level;
+        try {
+            level = pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            error = e.getCause() instanceof IOException
+                    ? (IOException) e.getCause() : new IOException(e.getCause());
+            level = null;
+        }
+
+        if (level == null) {
+            pending = null;
+            close();
+        } else {
+            pending = loader.submit(pack::next);
+        }
+        return level;
+    }
+
+    /**
+     * Drops the next {@code count} levels, for a restored game that had
+     * already played past them. They are parsed on the loader thread like
+     * any other level, so this does not block.
+     */
+    public void skip(int count) {
+        if (count <= 0 || pending == null) return;
+        pending = loader.submit(() -> {
+            for (int i = 1; i < count; i++) {
+                if (pack.next() == null) return null;
+            }
+            return pack.next();
+        });
+    }
+
+    /** The failure that ended the pack early, if any. */
+    public IOException getError() {
+        return error;
+    }
+
+    /** Stops the loader thread and closes the pack. */
+    public void close() {
+        loader.shutdownNow();
+        try {
+            pack.close();
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+    }
+}
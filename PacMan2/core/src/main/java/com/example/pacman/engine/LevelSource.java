@@ -0,0 +1,11 @@
+package com.example.pacman.engine;
+
+/**
+ * Supplies the maze for each new level. Called on the simulation thread when
+ * a level is cleared, so implementations should have the level ready rather
+ * than load it on demand.
+ */
+public interface LevelSource {
+    /** The maze to play next, or null to replay the current one. */
+    Level nextLevel();
+}
@@ -0,0 +1,65 @@
+package com.example.pacman.engine;
+
+/**
+ * Built-in mazes, given row by row with the tile codes used by
+ * {@link GameEngine#getTile(int, int)}: 0 empty, 1 wall, 2 dot, 3 power
+ * dot, 4 ghost-house gate.
+ */
+public final class Levels {
+    private static final int[][] CLASSIC = {
+            {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
+            {1,2,2,2,2,2,2,2,2,1,2,2,2,2,2,2,2,2,1},
+            {1,3,1,1,2,1,1,1,2,1,2,1,1,1,2,1,1,3,1},
+            {1,2,1,1,2,1,1,1,2,1,2,1,1,1,2,1,1,2,1},
+            {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
+            {1,2,1,1,2,1,2,1,1,1,1,1,2,1,2,1,1,2,1},
+            {1,2,2,2,2,1,2,2,2,1,2,2,2,1,2,2,2,2,1},
+            {1,1,1,1,2,1,1,1,0,1,0,1,1,1,2,1,1,1,1},
+            {0,0,0,1,2,1,0,0,0,0,0,0,0,1,2,1,0,0,0},
+            {1,1,1,1,2,1,0,1,1,4,1,1,0,1,2,1,1,1,1},
+            {0,0,0,0,2,0,0,1,0,0,0,1,0,0,2,0,0,0,0},
+            {1,1,1,1,2,1,0,1,1,1,1,1,0,1,2,1,1,1,1},
+            {0,0,0,1,2,1,0,0,0,0,0,0,0,1,2,1,0,0,0},
+            {1,1,1,1,2,1,0,1,1,1,1,1,0,1,2,1,1,1,1},
+            {1,2,2,2,2,2,2,2,2,1,2,2,2,2,2,2,2,2,1},
+            {1,2,1,1,2,1,1,1,2,1,2,1,1,1,2,1,1,2,1},
+            {1,3,2,1,2,2,2,2,2,2,2,2,2,2,2,1,2,3,1},
+            {1,1,2,1,2,1,2,1,1,1,1,1,2,1,2,1,2,1,1},
+            {1,2,2,2,2,1,2,2,2,1,2,2,2,1,2,2,2,2,1},
+            {1,2,1,1,1,1,1,1,2,1,2,1,1,1,1,1,1,2,1},
+            {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
+            {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
+    };
+
+    private Levels() {
+    }
+
+    /** The original 19x22 maze. */
+    public static int[][] classic() {
+        return copy(CLASSIC);
+    }
+
+    /**
+     * {@code level} repeated {@code times} in both directions. Used for
+     * stress and benchmark runs on mazes larger than the screen maze.
+     */
+    public static int[][] tiled(int[][] level, int times) {
+        int height = level.length;
+        int width = level[0].length;
+        int[][] result = new int[height * times][width * times];
+        for (int y = 0; y < result.length; y++) {
+            for (int x = 0; x < result[y].length; x++) {
+                result[y][x] = level[y % height][x % width];
+            }
+        }
+        return result;
+    }
+
+    private static int[][] copy(int[][] level) {
+        int[][] result = new int[level.length][];
+        for (int y = 0; y < level.length; y++) {
+            result[y] = level[y].clone();
+        }
+        return result;
+    }
+}
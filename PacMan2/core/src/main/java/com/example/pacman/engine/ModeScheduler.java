@@ -0,0 +1,64 @@
+package com.example.pacman.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Arcade scatter/chase timetable, counted in ticks. Ghosts that are neither
+ * frightened nor eaten follow the current phase: in scatter each heads for
+ * its home corner, in chase it hunts Pac-Man its own way. The timetable
+ * restarts with every level and every lost life, and the last chase phase
+ * lasts until then. As in the arcade, the engine does not tick it while any
+ * ghost is frightened, so a power dot delays the next switch rather than
+ * using up the current phase.
+ */
+public final class ModeScheduler {
+    public static final int SCATTER = 0;
+    public static final int CHASE = 1;
+
+    private static final int[] PHASE_SECONDS = {7, 20, 7, 20, 5, 20, 5};
+
+    private int phase;
+    private int ticksLeft;
+
+    public ModeScheduler() {
+        reset();
+    }
+
+    public void reset() {
+        phase = 0;
+        ticksLeft = PHASE_SECONDS[0] * GameEngine.TICKS_PER_SECOND;
+    }
+
+    /** Advances one tick and returns whether the ghosts switched between scatter and chase. */
+    public boolean tick() {
+        if (phase >= PHASE_SECONDS.length || --ticksLeft > 0) {
+            return false;
+        }
+        phase++;
+        if (phase < PHASE_SECONDS.length) {
+            ticksLeft = PHASE_SECONDS[phase] * GameEngine.TICKS_PER_SECOND;
+        }
+        return true;
+    }
+
+    /** {@link #SCATTER} or {@link #CHASE}. */
+    public int getMode() {
+        return (phase & 1) == 0 ? SCATTER : CHASE;
+    }
+
+    void writeState(DataOutputStream out) throws IOException {
+        out.writeByte(phase);
+        out.writeInt(ticksLeft);
+    }
+
+    void readState(DataInputStream in) throws IOException {
+        phase = Math.min(in.readUnsignedByte(), PHASE_SECONDS.length);
+        ticksLeft = in.readInt();
+    }
+
+    long stateHash() {
+        return 31L * phase + ticksLeft;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.pacman.engine;
+
+/**
+ * Shared step for every actor, driven by tables built once per maze size.
+ * For each cell and direction it stores the cell entered by leaving that
+ * way, wrapping at the maze edge, the world-unit shift that goes with a wrap
+ * and the coordinate at which the actor leaves the cell. Advancing an actor
+ * is then one add, one compare and, on a crossing, two table reads: no
+ * division, no clamping and no special case for tunnels.
+ *
+ * <p>Positions are kept as interleaved {@code x, y} pairs in world units, so
+ * {@link GhostStore} moves all its ghosts over one array and {@link Pacman}
+ * over a pair of its own. An actor's cell is the one whose centre is nearest
+ * to its position. Walls are not consulted; callers only step towards open
+ * cells or their own cell centre.
+ */
+public final class MovementKernel {
+    private static final int HALF = GameEngine.UNITS_PER_TILE / 2;
+    /** Sign of a step in each direction along its axis; the axis is {@code dir & 1}. */
+    private static final int[] SIGN = {1, 1, -1, -1};
+
+    private final int width;
+    private final int height;
+    private final int[] next;
+    private final int[] wrap;
+    private final int[] exitAt;
+    private final int[] column;
+    private final int[] row;
+
+    public MovementKernel(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int cells = width * height;
+        next = new int[cells * 4];
+        wrap = new int[cells * 4];
+        exitAt = new int[cells * 4];
+        column = new int[cells];
+        row = new int[cells];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                column[cell] = x;
+                row[cell] = y;
+                for (int dir = 0; dir < 4; dir++) {
+                    int k = cell * 4 + dir;
+                    int nx = x + NavigationIndex.DX[dir];
+                    int ny = y + NavigationIndex.DY[dir];
+                    if (nx < 0) {
+                        nx = width - 1;
+                        wrap[k] = width * GameEngine.UNITS_PER_TILE;
+                    } else if (nx == width) {
+                        nx = 0;
+                        wrap[k] = -width * GameEngine.UNITS_PER_TILE;
+                    } else if (ny < 0) {
+                        ny = height - 1;
+                        wrap[k] = height * GameEngine.UNITS_PER_TILE;
+                    } else if (ny == height) {
+                        ny = 0;
+                        wrap[k] = -height * GameEngine.UNITS_PER_TILE;
+                    }
+                    next[k] = ny * width + nx;
+                    // The cell spans [centre - HALF, centre + HALF); store the bound pre-multiplied by SIGN.
+                    int centre = ((dir & 1) == 0 ? x : y) * GameEngine.UNITS_PER_TILE;
+                    exitAt[k] = SIGN[dir] > 0 ? centre + HALF : HALF + 1 - centre;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the actor at {@code pos[at]}, {@code pos[at + 1]} in {@code cell}
+     * by {@code step} world units in {@code dir} and returns the cell it ends
+     * up in. {@code step} must be below a tile, so at most one border is
+     * crossed.
+     */
+    public int advance(int cell, int dir, int step, int[] pos, int at) {
+        int axis = at + (dir & 1);
+        int coord = pos[axis] + SIGN[dir] * step;
+        int k = cell * 4 + dir;
+        if (SIGN[dir] * coord >= exitAt[k]) {
+            coord += wrap[k];
+            cell = next[k];
+        }
+        pos[axis] = coord;
+        return cell;
+    }
+
+    /** Cell entered by leaving {@code cell} in {@code dir}, wrapping at the edge. */
+    public int next(int cell, int dir) {
+        return next[cell * 4 + dir];
+    }
+
+    public int columnOf(int cell) {
+        return column[cell];
+    }
+
+    public int rowOf(int cell) {
+        return row[cell];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.pacman.engine;
+
+import java.util.Arrays;
+
+/**
+ * Movement lookup tables derived from the maze once per level. Each walkable
+ * cell stores a bitmask of legal exits (bit {@code d} for direction {@code d},
+ * using the 0=right, 1=down, 2=left, 3=up convention of the actors) and the
+ * cell reached through each exit, with tunnel exits on the border wrapping to
+ * the opposite side when that side is open. Cells are indexed row-major:
+ * {@code y * width + x}.
+ * Wall cells get exits too, since an actor may spawn inside one (Clyde
+ * starts in the ghost-house wall) and must still be able to step out.
+ */
+public final class NavigationIndex {
+    public static final int[] DX = {1, 0, -1, 0};
+    public static final int[] DY = {0, 1, 0, -1};
+
+    private final int width;
+    private final int height;
+    private final byte[] exits;
+    private final int[] neighbors;
+    private final int[] junctions;
+    private final int[] corridors;
+    private final int[] tunnels;
+    private final int[] nearestOpen;
+
+    public NavigationIndex(GameEngine engine) {
+        this.width = engine.getWidthInBlocks();
+        this.height = engine.getHeightInBlocks();
+        int cells = width * height;
+        exits = new byte[cells];
+        neighbors = new int[cells * 4];
+        Arrays.fill(neighbors, -1);
+
+        int[] junctionCells = new int[cells];
+        int[] corridorCells = new int[cells];
+        int[] tunnelExits = new int[cells * 4];
+        int junctionCount = 0;
+        int corridorCount = 0;
+        int tunnelCount = 0;
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                boolean walkable = !engine.isWall(x, y);
+                int mask = 0;
+                for (int dir = 0; dir < 4; dir++) {
+                    int nx = x + DX[dir];
+                    int ny = y + DY[dir];
+                    boolean edge = nx < 0 || ny < 0 || nx >= width || ny >= height;
+                    nx = (nx + width) % width;
+                    ny = (ny + height) % height;
+                    if (engine.isWall(nx, ny)) continue;
+
+                    mask |= 1 << dir;
+                    if (edge && walkable) tunnelExits[tunnelCount++] = cell * 4 + dir;
+                    neighbors[cell * 4 + dir] = ny * width + nx;
+                }
+                exits[cell] = (byte) mask;
+                if (!walkable) continue;
+
+                int count = Integer.bitCount(mask);
+                if (count >= 3) junctionCells[junctionCount++] = cell;
+                else if (count == 2) corridorCells[corridorCount++] = cell;
+            }
+        }
+
+        junctions = Arrays.copyOf(junctionCells, junctionCount);
+        corridors = Arrays.copyOf(corridorCells, corridorCount);
+        tunnels = Arrays.copyOf(tunnelExits, tunnelCount);
+        nearestOpen = computeNearestOpen(engine);
+    }
+
+    /** Multi-source BFS from every walkable cell, ignoring walls, so each wall maps to the closest open cell. */
+    private int[] computeNearestOpen(GameEngine engine) {
+        int cells = width * height;
+        int[] nearest = new int[cells];
+        Arrays.fill(nearest, -1);
+        int[] queue = new int[cells];
+        int write = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (!engine.isWall(cell % width, cell / width)) {
+                nearest[cell] = cell;
+                queue[write++] = cell;
+            }
+        }
+        for (int read = 0; read < write; read++) {
+            int cell = queue[read];
+            int x = cell % width;
+            int y = cell / width;
+            for (int dir = 0; dir < 4; dir++) {
+                int nx = x + DX[dir];
+                int ny = y + DY[dir];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+                int next = ny * width + nx;
+                if (nearest[next] < 0) {
+                    nearest[next] = nearest[cell];
+                    queue[write++] = next;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    public boolean canMove(int x, int y, int dir) {
+        return (exits[y * width + x] & (1 << dir)) != 0;
+    }
+
+    public int getExits(int x, int y) {
+        return exits[y * width + x];
+    }
+
+    public boolean isJunction(int x, int y) {
+        return Integer.bitCount(exits[y * width + x]) >= 3;
+    }
+
+    /** Cell reached by leaving {@code cell} in {@code dir}, or -1 if blocked. */
+    public int neighbor(int cell, int dir) {
+        return neighbors[cell * 4 + dir];
+    }
+
+    public int cellOf(int x, int y) {
+        return y * width + x;
+    }
+
+    /** {@code cell} itself if walkable, otherwise the closest walkable cell. */
+    public int nearestOpen(int cell) {
+        return nearestOpen[cell];
+    }
+
+    /** Cell of {@code (x, y)} after clamping into the maze, so targets off the edge stay usable. */
+    public int clampedCell(int x, int y) {
+        x = x < 0 ? 0 : (x >= width ? width - 1 : x);
+        y = y < 0 ? 0 : (y >= height ? height - 1 : y);
+        return y * width + x;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /** Walkable cells with three or more exits, where actors can choose a new way. */
+    public int[] getJunctions() {
+        return junctions;
+    }
+
+    /** Walkable cells with exactly two exits. */
+    public int[] getCorridors() {
+        return corridors;
+    }
+
+    /** Exits that leave the maze edge, encoded as {@code cell * 4 + dir}. */
+    public int[] getTunnels() {
+        return tunnels;
+    }
+}
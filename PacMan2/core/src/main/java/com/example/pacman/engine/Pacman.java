@@ -0,0 +1,143 @@
+package com.example.pacman.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class Pacman {
+    /**
+     * How long a turn that cannot be taken yet stays buffered: about half a
+     * second, so a turn pressed shortly before a junction is taken there,
+     * but a stale one does not fire at some later junction.
+     */
+    static final int TURN_BUFFER_TICKS = 15;
+
+    /** World units moved per tick: a fifth of a tile, so Pac-Man stays on the tile grid. */
+    static final int SPEED = GameEngine.UNITS_PER_TILE / 5;
+
+    private int x, y;
+    private int direction = 0;
+    private int nextDirection = 0;
+    private int turnTicksLeft;
+    /** Position in world units as an {@code x, y} pair, the layout {@link MovementKernel} steps. */
+    private final int[] world = new int[2];
+    private int prevWorldX, prevWorldY;
+    private float mouthAngle = 30;
+    private int startX, startY;
+    private float mouthAnimation = 0;
+    private boolean isAlive = true;
+    private int lives = 3;
+
+    public Pacman(int startX, int startY) {
+        this.startX = startX;
+        this.startY = startY;
+        reset();
+    }
+
+    public void reset() {
+        x = startX;
+        y = startY;
+        direction = 0;
+        nextDirection = 0;
+        turnTicksLeft = 0;
+        isAlive = true;
+        world[0] = x * GameEngine.UNITS_PER_TILE;
+        world[1] = y * GameEngine.UNITS_PER_TILE;
+        prevWorldX = world[0];
+        prevWorldY = world[1];
+    }
+
+    public void update(GameEngine engine) {
+        prevWorldX = world[0];
+        prevWorldY = world[1];
+
+        if (!isAlive) return;
+
+        mouthAnimation += 0.2f;
+        mouthAngle = 30 + (int)(15 * Math.abs(Math.sin(mouthAnimation)));
+
+        if (canMove(nextDirection, engine)) {
+            direction = nextDirection;
+        } else if (nextDirection != direction && --turnTicksLeft <= 0) {
+            nextDirection = direction;
+        }
+
+        if (canMove(direction, engine)) {
+            MovementKernel movement = engine.getMovement();
+            int cell = movement.advance(y * movement.getWidth() + x, direction, SPEED, world, 0);
+            x = movement.columnOf(cell);
+            y = movement.rowOf(cell);
+        }
+    }
+
+    boolean canMove(int dir, GameEngine engine) {
+        return engine.getNavigation().canMove(x, y, dir);
+    }
+
+    public void setNextDirection(int dir) {
+        this.nextDirection = dir;
+        this.turnTicksLeft = TURN_BUFFER_TICKS;
+    }
+
+    void writeState(DataOutputStream out) throws IOException {
+        InputRecording.writeVarint(out, x);
+        InputRecording.writeVarint(out, y);
+        out.writeByte(direction);
+        out.writeByte(nextDirection);
+        out.writeByte(turnTicksLeft);
+        out.writeBoolean(isAlive);
+        out.writeInt(world[0]);
+        out.writeInt(world[1]);
+        out.writeFloat(mouthAnimation);
+    }
+
+    void readState(DataInputStream in) throws IOException {
+        x = (int) InputRecording.readVarint(in);
+        y = (int) InputRecording.readVarint(in);
+        direction = in.readUnsignedByte() & 3;
+        nextDirection = in.readUnsignedByte() & 3;
+        turnTicksLeft = in.readByte();
+        isAlive = in.readBoolean();
+        world[0] = in.readInt();
+        world[1] = in.readInt();
+        mouthAnimation = in.readFloat();
+        mouthAngle = 30 + (int)(15 * Math.abs(Math.sin(mouthAnimation)));
+        prevWorldX = world[0];
+        prevWorldY = world[1];
+    }
+
+    public void die() {
+        isAlive = false;
+        lives--;
+    }
+
+
+    long stateHash() {
+        long h = x;
+        h = 31 * h + y;
+        h = 31 * h + direction;
+        h = 31 * h + nextDirection;
+        h = 31 * h + turnTicksLeft;
+        h = 31 * h + world[0];
+        h = 31 * h + world[1];
+        h = 31 * h + (isAlive ? 1 : 0);
+        return h;
+    }
+
+    public int getX() { return x; }
+    public int getY() { return y; }
+    /** Left edge in world units ({@link GameEngine#UNITS_PER_TILE} per tile). */
+    public int getWorldX() { return world[0]; }
+    /** Top edge in world units. */
+    public int getWorldY() { return world[1]; }
+    int getPrevWorldX() { return prevWorldX; }
+    int getPrevWorldY() { return prevWorldY; }
+    /** Left edge in world units, {@code alpha} of the way from the previous tick to this one. */
+    public float getRenderX(float alpha) { return GameEngine.lerp(prevWorldX, world[0], alpha); }
+    public float getRenderY(float alpha) { return GameEngine.lerp(prevWorldY, world[1], alpha); }
+    public int getDirection() { return direction; }
+    public int getNextDirection() { return nextDirection; }
+    public float getMouthAngle() { return mouthAngle; }
+    public boolean isAlive() { return isAlive; }
+    public int getLives() { return lives; }
+}
\ No newline at end of file
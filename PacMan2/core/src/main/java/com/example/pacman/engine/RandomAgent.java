@@ -0,0 +1,24 @@
+package com.example.pacman.engine;
+
+/** Picks a new random direction on roughly one tick in {@code 1/turnChance}. */
+public final class RandomAgent implements Agent {
+    private final GameRandom random;
+    private final int turnChance;
+
+    public RandomAgent(long seed) {
+        this(seed, 10);
+    }
+
+    public RandomAgent(long seed, int turnChance) {
+        this.random = new GameRandom(seed);
+        this.turnChance = turnChance;
+    }
+
+    @Override
+    public int chooseDirection(GameEngine engine) {
+        if (random.nextInt(turnChance) != 0) {
+            return -1;
+        }
+        return random.nextInt(4);
+    }
+}
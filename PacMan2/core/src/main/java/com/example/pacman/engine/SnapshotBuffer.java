@@ -0,0 +1,47 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Triple-buffered {@link WorldSnapshot}s between the thread that ticks the
+ * engine and the one that draws it. The writer fills its back snapshot and
+ * publishes it with one atomic swap; the reader takes the newest published
+ * snapshot with another. Neither side ever waits for the other, and the
+ * snapshot a reader holds is not touched until it acquires a newer one.
+ */
+public final class SnapshotBuffer {
+    private static final int INDEX = 3;
+    private static final int FRESH = 4;
+
+    private final WorldSnapshot[] snapshots = new WorldSnapshot[3];
+    /** Index of the newest published snapshot, with {@link #FRESH} set until a reader takes it. */
+    private final AtomicInteger latest = new AtomicInteger(0);
+    private int back = 1;
+    private int front = 2;
+
+    /** Starts every snapshot from {@code engine}, so a reader never sees an empty one. */
+    public SnapshotBuffer(GameEngine engine) {
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new WorldSnapshot();
+            snapshots[i].capture(engine);
+        }
+    }
+
+    /** Writer side: the snapshot to fill before {@link #publish()}. */
+    public WorldSnapshot getBack() {
+        return snapshots[back];
+    }
+
+    /** Writer side: makes the back snapshot the newest and takes a free one to fill next. */
+    public void publish() {
+        back = latest.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /** Reader side: the newest published snapshot, or the one it already holds if nothing is newer. */
+    public WorldSnapshot acquire() {
+        if ((latest.get() & FRESH) != 0) {
+            front = latest.getAndSet(front) & INDEX;
+        }
+        return snapshots[front];
+    }
+}
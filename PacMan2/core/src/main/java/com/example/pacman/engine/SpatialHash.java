@@ -0,0 +1,199 @@
+package com.example.pacman.engine;
+
+import java.util.Arrays;
+
+/**
+ * Broad and narrow phase collision for any number of moving actors. Each
+ * tick, actors are added with the pixel position they moved from and the one
+ * they moved to; the bounding box of that sweep is bucketed into a uniform
+ * grid of maze cells, so a query only looks at actors in the few cells its
+ * own sweep touches. Candidates are then tested continuously over the tick:
+ * two circles moving in straight lines hit if they come within the sum of
+ * their radii at any time, so fast actors cannot pass through each other
+ * between cells.
+ *
+ * <p>Buckets are intrusive lists in flat arrays and are invalidated by a
+ * stamp rather than cleared, so {@link #clear()} and {@link #add} cost the
+ * same however big the maze is, and nothing is allocated once the arrays
+ * have grown to the actor count.
+ *
+ * <p>Every actor has a layer bit; queries take a mask of the layers they
+ * care about, so ghosts, fruit and projectiles can share one hash.
+ */
+public final class SpatialHash {
+    public static final int PACMAN = 1;
+    public static final int GHOST = 1 << 1;
+    public static final int FRUIT = 1 << 2;
+    public static final int PROJECTILE = 1 << 3;
+
+    private int columns;
+    private int rows;
+    private float cellSize = 1;
+
+    private int[] heads = new int[0];
+    private int[] headStamps = new int[0];
+    private int stamp;
+
+    private int[] entryActor = new int[64];
+    private int[] entryNext = new int[64];
+    private int entries;
+
+    private float[] fromX = new float[16];
+    private float[] fromY = new float[16];
+    private float[] toX = new float[16];
+    private float[] toY = new float[16];
+    private float[] radius = new float[16];
+    private int[] layers = new int[16];
+    private int[] seen = new int[16];
+    private int queryStamp;
+    private int size;
+
+    /** Sizes the grid for a maze of {@code columns x rows} cells of {@code cellSize} pixels and empties it. */
+    public void reset(int columns, int rows, float cellSize) {
+        this.cellSize = Math.max(cellSize, 1);
+        if (columns * rows != heads.length) {
+            heads = new int[columns * rows];
+            headStamps = new int[columns * rows];
+            stamp = 0;
+        }
+        this.columns = columns;
+        this.rows = rows;
+        clear();
+    }
+
+    /** Removes every actor; call once per tick before adding them again. */
+    public void clear() {
+        if (++stamp == 0) {
+            Arrays.fill(headStamps, 0);
+            stamp = 1;
+        }
+        entries = 0;
+        size = 0;
+    }
+
+    /**
+     * Adds an actor that moved from {@code (x0, y0)} to {@code (x1, y1)} this
+     * tick and returns its id. A move longer than one cell is a tunnel wrap
+     * and is treated as a jump to the new position.
+     */
+    public int add(float x0, float y0, float x1, float y1, float r, int layer) {
+        if (Math.abs(x1 - x0) > cellSize || Math.abs(y1 - y0) > cellSize) {
+            x0 = x1;
+            y0 = y1;
+        }
+        if (size == layers.length) {
+            int capacity = size * 2;
+            fromX = Arrays.copyOf(fromX, capacity);
+            fromY = Arrays.copyOf(fromY, capacity);
+            toX = Arrays.copyOf(toX, capacity);
+            toY = Arrays.copyOf(toY, capacity);
+            radius = Arrays.copyOf(radius, capacity);
+            layers = Arrays.copyOf(layers, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+        }
+
+        int id = size++;
+        fromX[id] = x0;
+        fromY[id] = y0;
+        toX[id] = x1;
+        toY[id] = y1;
+        radius[id] = r;
+        layers[id] = layer;
+        seen[id] = 0;
+
+        int minX = column(Math.min(x0, x1) - r);
+        int maxX = column(Math.max(x0, x1) + r);
+        int minY = row(Math.min(y0, y1) - r);
+        int maxY = row(Math.max(y0, y1) + r);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                link(cy * columns + cx, id);
+            }
+        }
+        return id;
+    }
+
+    private void link(int cell, int id) {
+        if (entries == entryActor.length) {
+            entryActor = Arrays.copyOf(entryActor, entries * 2);
+            entryNext = Arrays.copyOf(entryNext, entries * 2);
+        }
+        if (headStamps[cell] != stamp) {
+            headStamps[cell] = stamp;
+            heads[cell] = -1;
+        }
+        entryActor[entries] = id;
+        entryNext[entries] = heads[cell];
+        heads[cell] = entries++;
+    }
+
+    /**
+     * Collects the actors on {@code layerMask} that touch actor {@code id}
+     * during the tick into {@code hits}, in ascending id order, and returns
+     * how many there are. Hits beyond the array length are dropped.
+     */
+    public int query(int id, int layerMask, int[] hits) {
+        if (++queryStamp == 0) {
+            Arrays.fill(seen, 0);
+            queryStamp = 1;
+        }
+        seen[id] = queryStamp;
+
+        float r = radius[id];
+        int minX = column(Math.min(fromX[id], toX[id]) - r);
+        int maxX = column(Math.max(fromX[id], toX[id]) + r);
+        int minY = row(Math.min(fromY[id], toY[id]) - r);
+        int maxY = row(Math.max(fromY[id], toY[id]) + r);
+
+        int count = 0;
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                int cell = cy * columns + cx;
+                if (headStamps[cell] != stamp) continue;
+
+                for (int e = heads[cell]; e >= 0; e = entryNext[e]) {
+                    int other = entryActor[e];
+                    if (seen[other] == queryStamp || (layers[other] & layerMask) == 0) continue;
+                    seen[other] = queryStamp;
+                    if (count < hits.length && sweptHit(id, other)) {
+                        hits[count++] = other;
+                    }
+                }
+            }
+        }
+        Arrays.sort(hits, 0, count);
+        return count;
+    }
+
+    /** Whether two actors come within the sum of their radii at any point of the tick. */
+    boolean sweptHit(int a, int b) {
+        float dx = fromX[a] - fromX[b];
+        float dy = fromY[a] - fromY[b];
+        float vx = (toX[a] - fromX[a]) - (toX[b] - fromX[b]);
+        float vy = (toY[a] - fromY[a]) - (toY[b] - fromY[b]);
+        float reach = radius[a] + radius[b];
+
+        float speed = vx * vx + vy * vy;
+        float t = speed > 0 ? -(dx * vx + dy * vy) / speed : 0;
+        if (t < 0) t = 0;
+        if (t > 1) t = 1;
+
+        float cx = dx + vx * t;
+        float cy = dy + vy * t;
+        return cx * cx + cy * cy < reach * reach;
+    }
+
+    private int column(float px) {
+        int c = (int) Math.floor(px / cellSize);
+        return c < 0 ? 0 : (c >= columns ? columns - 1 : c);
+    }
+
+    private int row(float py) {
+        int r = (int) Math.floor(py / cellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+    public int size() {
+        return size;
+    }
+}
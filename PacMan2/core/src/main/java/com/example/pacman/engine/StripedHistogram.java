@@ -0,0 +1,38 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-width histogram whose buckets are {@link LongAdder}s, so many threads
+ * can record into it without locks or contention on a shared counter. Values
+ * past the last bucket are counted in it.
+ */
+public final class StripedHistogram {
+    private final long bucketWidth;
+    private final LongAdder[] buckets;
+
+    public StripedHistogram(long bucketWidth, int bucketCount) {
+        this.bucketWidth = bucketWidth;
+        this.buckets = new LongAdder[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long value) {
+        long bucket = value < 0 ? 0 : value / bucketWidth;
+        buckets[(int) Math.min(bucket, buckets.length - 1)].increment();
+    }
+
+    public long getBucketWidth() {
+        return bucketWidth;
+    }
+
+    public int getBucketCount() {
+        return buckets.length;
+    }
+
+    public long getCount(int bucket) {
+        return buckets[bucket].sum();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.pacman.engine;
+
+/**
+ * What a {@link GhostStrategy} may look at when it picks a target: Pac-Man's
+ * cell and heading and the maze. The engine fills it once per tick before
+ * the decide phase and does not touch it again until every ghost has
+ * decided, so strategies can read it from any thread.
+ */
+public final class TargetContext {
+    private int pacmanX;
+    private int pacmanY;
+    private int pacmanDirection;
+    private NavigationIndex navigation;
+
+    void set(int pacmanX, int pacmanY, int pacmanDirection, NavigationIndex navigation) {
+        this.pacmanX = pacmanX;
+        this.pacmanY = pacmanY;
+        this.pacmanDirection = pacmanDirection;
+        this.navigation = navigation;
+    }
+
+    public int getPacmanX() {
+        return pacmanX;
+    }
+
+    public int getPacmanY() {
+        return pacmanY;
+    }
+
+    /** Pac-Man's heading, 0=right, 1=down, 2=left, 3=up. */
+    public int getPacmanDirection() {
+        return pacmanDirection;
+    }
+
+    public NavigationIndex getNavigation() {
+        return navigation;
+    }
+}
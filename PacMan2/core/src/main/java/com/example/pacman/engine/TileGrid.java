@@ -0,0 +1,229 @@
+package com.example.pacman.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Maze tiles stored as one row-major bitset per tile type, four bits per cell
+ * in total. Walls and the gate never change during a level; dots and power
+ * dots are cleared as they are eaten and restored from a pristine copy by
+ * {@link #resetDots()}, which is a word copy instead of a rebuild from the
+ * level literal. The number of remaining dots is a popcount.
+ */
+public final class TileGrid {
+    public static final int EMPTY = 0;
+    public static final int WALL = 1;
+    public static final int DOT = 2;
+    public static final int POWER_DOT = 3;
+    public static final int GATE = 4;
+
+    private final int width;
+    private final int height;
+    private final long[] walls;
+    private final long[] gates;
+    private final long[] dots;
+    private final long[] powerDots;
+    private final long[] initialDots;
+    private final long[] initialPowerDots;
+
+    /** Builds the grid from a level given row by row, as in {@link Levels}. */
+    public TileGrid(int[][] levelMap) {
+        this(levelMap[0].length, levelMap.length);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                setInitial(y * width + x, levelMap[y][x]);
+            }
+        }
+        resetDots();
+    }
+
+    /**
+     * Empty grid to be filled cell by cell with {@link #setInitial(int, int)}
+     * by a level loader, followed by {@link #resetDots()}.
+     */
+    TileGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int words = (width * height + 63) >>> 6;
+        walls = new long[words];
+        gates = new long[words];
+        dots = new long[words];
+        powerDots = new long[words];
+        initialDots = new long[words];
+        initialPowerDots = new long[words];
+    }
+
+    /** Independent grid with the same tiles and the same remaining dots. */
+    TileGrid copy() {
+        TileGrid copy = new TileGrid(width, height);
+        System.arraycopy(walls, 0, copy.walls, 0, walls.length);
+        System.arraycopy(gates, 0, copy.gates, 0, gates.length);
+        System.arraycopy(initialDots, 0, copy.initialDots, 0, initialDots.length);
+        System.arraycopy(initialPowerDots, 0, copy.initialPowerDots, 0, initialPowerDots.length);
+        System.arraycopy(dots, 0, copy.dots, 0, dots.length);
+        System.arraycopy(powerDots, 0, copy.powerDots, 0, powerDots.length);
+        return copy;
+    }
+
+    void setInitial(int cell, int tile) {
+        switch (tile) {
+            case WALL: set(walls, cell); break;
+            case DOT: set(initialDots, cell); break;
+            case POWER_DOT: set(initialPowerDots, cell); break;
+            case GATE: set(gates, cell); break;
+        }
+    }
+
+    /** Tile the cell held when the level was loaded, before any dot was eaten. */
+    int getInitial(int cell) {
+        if (test(walls, cell)) return WALL;
+        if (test(initialDots, cell)) return DOT;
+        if (test(initialPowerDots, cell)) return POWER_DOT;
+        if (test(gates, cell)) return GATE;
+        return EMPTY;
+    }
+
+    /** First gate cell in row-major order, or -1 if the maze has none. */
+    public int firstGateCell() {
+        for (int i = 0; i < gates.length; i++) {
+            if (gates[i] != 0) {
+                return (i << 6) + Long.numberOfTrailingZeros(gates[i]);
+            }
+        }
+        return -1;
+    }
+
+    private static void set(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+
+    private static boolean test(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int get(int x, int y) {
+        int cell = y * width + x;
+        if (test(walls, cell)) return WALL;
+        if (test(dots, cell)) return DOT;
+        if (test(powerDots, cell)) return POWER_DOT;
+        if (test(gates, cell)) return GATE;
+        return EMPTY;
+    }
+
+    public boolean isWall(int x, int y) {
+        return test(walls, y * width + x);
+    }
+
+    /**
+     * Clears the dot or power dot at the cell, if any, and returns which one
+     * it was ({@link #DOT}, {@link #POWER_DOT} or {@link #EMPTY}).
+     */
+    public int eat(int x, int y) {
+        int cell = y * width + x;
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        if ((dots[word] & bit) != 0) {
+            dots[word] &= ~bit;
+            return DOT;
+        }
+        if ((powerDots[word] & bit) != 0) {
+            powerDots[word] &= ~bit;
+            return POWER_DOT;
+        }
+        return EMPTY;
+    }
+
+    public int remainingDots() {
+        int count = 0;
+        for (int i = 0; i < dots.length; i++) {
+            count += Long.bitCount(dots[i] | powerDots[i]);
+        }
+        return count;
+    }
+
+    /**
+     * First row-major cell at or after {@code fromCell} that still holds a dot
+     * or power dot, or -1. Skips 64 empty cells per step.
+     */
+    public int nextDotCell(int fromCell) {
+        return nextDotCell(dots, powerDots, width * height, fromCell);
+    }
+
+    static int nextDotCell(long[] dots, long[] powerDots, int cells, int fromCell) {
+        if (fromCell >= cells) return -1;
+        int word = fromCell >>> 6;
+        long bits = (dots[word] | powerDots[word]) & (-1L << fromCell);
+        while (true) {
+            if (bits != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return cell < cells ? cell : -1;
+            }
+            if (++word == dots.length) return -1;
+            bits = dots[word] | powerDots[word];
+        }
+    }
+
+    /** Number of words in each of the dot bitsets. */
+    int dotWords() {
+        return dots.length;
+    }
+
+    /** Copies the remaining dots and power dots into arrays of {@link #dotWords()} words. */
+    void copyDots(long[] dotsOut, long[] powerDotsOut) {
+        System.arraycopy(dots, 0, dotsOut, 0, dots.length);
+        System.arraycopy(powerDots, 0, powerDotsOut, 0, powerDots.length);
+    }
+
+    void writeDots(DataOutputStream out) throws IOException {
+        for (int i = 0; i < dots.length; i++) {
+            out.writeLong(dots[i]);
+            out.writeLong(powerDots[i]);
+        }
+    }
+
+    /** Reads what {@link #writeDots} wrote; only dots the level started with can come back. */
+    void readDots(DataInputStream in) throws IOException {
+        for (int i = 0; i < dots.length; i++) {
+            dots[i] = in.readLong() & initialDots[i];
+            powerDots[i] = in.readLong() & initialPowerDots[i];
+        }
+    }
+
+    /** Whether {@code other} has the same size, walls, gate and starting dots. */
+    boolean sameLayout(TileGrid other) {
+        return width == other.width && height == other.height
+                && Arrays.equals(walls, other.walls) && Arrays.equals(gates, other.gates)
+                && Arrays.equals(initialDots, other.initialDots)
+                && Arrays.equals(initialPowerDots, other.initialPowerDots);
+    }
+
+    boolean isGate(int cell) {
+        return test(gates, cell);
+    }
+
+    /** Puts back every dot and power dot the level started with. */
+    public void resetDots() {
+        System.arraycopy(initialDots, 0, dots, 0, dots.length);
+        System.arraycopy(initialPowerDots, 0, powerDots, 0, powerDots.length);
+    }
+
+    /** Hash of the mutable part of the grid (remaining dots). */
+    long stateHash() {
+        long h = 17;
+        for (int i = 0; i < dots.length; i++) {
+            h = 31 * h + dots[i];
+            h = 31 * h + powerDots[i];
+        }
+        return h;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.pacman.engine;
+
+import java.util.Arrays;
+
+/**
+ * Everything a frame needs from the game, copied out of a {@link GameEngine}
+ * after a tick: actor positions of the last two ticks, remaining dots, HUD
+ * values and path cache figures. Renderers read only this, never the
+ * engine, so drawing can run on another thread while the next tick is
+ * simulated. Snapshots are reused through a {@link SnapshotBuffer}; arrays
+ * are reallocated only when the ghost count or maze size changes.
+ *
+ * <p>Positions are kept in world units and converted to pixels at the block
+ * size the renderer passes in, so a resize never reaches the engine.
+ */
+public final class WorldSnapshot {
+    private long tick;
+    private long tickTimeNanos;
+    private long updateNanos;
+
+    private Level maze;
+    private TileGrid grid;
+    private int mapVersion;
+    private int width, height;
+    private long[] dots = new long[0];
+    private long[] powerDots = new long[0];
+
+    private int score;
+    private int lives;
+    private int level;
+    private boolean running;
+    private int restartSecondsLeft;
+    private double pathHitRate;
+    private long pathMemoryBytes;
+
+    private int pacmanPrevX, pacmanPrevY, pacmanX, pacmanY;
+    private int pacmanDirection;
+    private float mouthAngle;
+    private boolean pacmanAlive;
+
+    private int ghostCount;
+    private int[] ghostPrevX = new int[0];
+    private int[] ghostPrevY = new int[0];
+    private int[] ghostX = new int[0];
+    private int[] ghostY = new int[0];
+    private float[] waveOffset = new float[0];
+    private int[] ghostDirection = new int[0];
+    private int[] ghostColor = new int[0];
+    private int[] ghostMode = new int[0];
+
+    /** Copies the engine's current state; call on the thread that ticks it. */
+    public void capture(GameEngine engine) {
+        tick = engine.getTickCount();
+        maze = engine.getMaze();
+        grid = engine.getGrid();
+        mapVersion = engine.getMapVersion();
+        width = engine.getWidthInBlocks();
+        height = engine.getHeightInBlocks();
+        if (dots.length != grid.dotWords()) {
+            dots = new long[grid.dotWords()];
+            powerDots = new long[grid.dotWords()];
+        }
+        grid.copyDots(dots, powerDots);
+
+        score = engine.getScore();
+        lives = engine.getLives();
+        level = engine.getLevel();
+        running = engine.isGameRunning();
+        restartSecondsLeft = engine.getRestartSecondsLeft();
+        pathHitRate = engine.getPathHitRate();
+        pathMemoryBytes = engine.getPathMemoryBytes();
+
+        Pacman pacman = engine.getPacman();
+        pacmanPrevX = pacman.getPrevWorldX();
+        pacmanPrevY = pacman.getPrevWorldY();
+        pacmanX = pacman.getWorldX();
+        pacmanY = pacman.getWorldY();
+        pacmanDirection = pacman.getDirection();
+        mouthAngle = pacman.getMouthAngle();
+        pacmanAlive = pacman.isAlive();
+
+        GhostStore store = engine.getGhostStore();
+        ghostCount = store.size();
+        if (ghostX.length < ghostCount) {
+            ghostPrevX = Arrays.copyOf(ghostPrevX, ghostCount);
+            ghostPrevY = Arrays.copyOf(ghostPrevY, ghostCount);
+            ghostX = Arrays.copyOf(ghostX, ghostCount);
+            ghostY = Arrays.copyOf(ghostY, ghostCount);
+            waveOffset = Arrays.copyOf(waveOffset, ghostCount);
+            ghostDirection = Arrays.copyOf(ghostDirection, ghostCount);
+            ghostColor = Arrays.copyOf(ghostColor, ghostCount);
+            ghostMode = Arrays.copyOf(ghostMode, ghostCount);
+        }
+        for (int i = 0; i < ghostCount; i++) {
+            ghostPrevX[i] = store.getPrevWorldX(i);
+            ghostPrevY[i] = store.getPrevWorldY(i);
+            ghostX[i] = store.getWorldX(i);
+            ghostY[i] = store.getWorldY(i);
+            waveOffset[i] = store.getWaveOffset(i);
+            ghostDirection[i] = store.getDirection(i);
+            ghostColor[i] = store.strategyOf(store.getStrategy(i)).getColor();
+            ghostMode[i] = store.getMode(i);
+        }
+    }
+
+    /**
+     * Records when the captured tick was due and how long it took, both on
+     * the {@link System#nanoTime()} clock.
+     */
+    public void setTiming(long tickTimeNanos, long updateNanos) {
+        this.tickTimeNanos = tickTimeNanos;
+        this.updateNanos = updateNanos;
+    }
+
+    /** Same as {@link GameEngine#getTile}, with the dots as of this snapshot. */
+    public int getTile(int x, int y) {
+        int cell = y * width + x;
+        if (grid.isWall(x, y)) return TileGrid.WALL;
+        long bit = 1L << cell;
+        if ((dots[cell >>> 6] & bit) != 0) return TileGrid.DOT;
+        if ((powerDots[cell >>> 6] & bit) != 0) return TileGrid.POWER_DOT;
+        if (grid.isGate(cell)) return TileGrid.GATE;
+        return TileGrid.EMPTY;
+    }
+
+    public boolean isWall(int x, int y) {
+        return grid.isWall(x, y);
+    }
+
+    /** First row-major cell at or after {@code fromCell} holding a dot or power dot, or -1. */
+    public int nextDotCell(int fromCell) {
+        return TileGrid.nextDotCell(dots, powerDots, width * height, fromCell);
+    }
+
+    int getDotWords() {
+        return dots.length;
+    }
+
+    /** Cells {@code 64 * word} onwards that hold a dot or power dot, one bit each. */
+    long getDotWord(int word) {
+        return dots[word] | powerDots[word];
+    }
+
+    /**
+     * Pixels at {@code blockSize} pixels per tile of the position {@code alpha}
+     * of the way from {@code from} to {@code to}, in world units.
+     */
+    private static float toPixels(int from, int to, float alpha, int blockSize) {
+        return GameEngine.lerp(from, to, alpha) * blockSize / GameEngine.UNITS_PER_TILE;
+    }
+
+    public long getTick() { return tick; }
+    public long getTickTimeNanos() { return tickTimeNanos; }
+    public long getUpdateNanos() { return updateNanos; }
+    public Level getMaze() { return maze; }
+    public int getMapVersion() { return mapVersion; }
+    public int getWidthInBlocks() { return width; }
+    public int getHeightInBlocks() { return height; }
+    public int getScore() { return score; }
+    public int getLives() { return lives; }
+    public int getLevel() { return level; }
+    public boolean isGameRunning() { return running; }
+    public int getRestartSecondsLeft() { return restartSecondsLeft; }
+    public double getPathHitRate() { return pathHitRate; }
+    public long getPathMemoryBytes() { return pathMemoryBytes; }
+
+    /** Left edge of Pac-Man's cell in pixels, interpolated between the last two ticks. */
+    public float getPacmanRenderX(float alpha, int blockSize) { return toPixels(pacmanPrevX, pacmanX, alpha, blockSize); }
+    public float getPacmanRenderY(float alpha, int blockSize) { return toPixels(pacmanPrevY, pacmanY, alpha, blockSize); }
+    public int getPacmanDirection() { return pacmanDirection; }
+    public float getMouthAngle() { return mouthAngle; }
+    public boolean isPacmanAlive() { return pacmanAlive; }
+
+    public int getGhostCount() { return ghostCount; }
+    public float getGhostRenderX(int i, float alpha, int blockSize) { return toPixels(ghostPrevX[i], ghostX[i], alpha, blockSize); }
+    public float getGhostRenderY(int i, float alpha, int blockSize) { return toPixels(ghostPrevY[i], ghostY[i], alpha, blockSize); }
+    public int getGhostDirection(int i) { return ghostDirection[i]; }
+    public int getGhostColor(int i) { return ghostColor[i]; }
+    public float getGhostWaveOffset(int i) { return waveOffset[i]; }
+    public boolean isGhostScared(int i) { return ghostMode[i] == GhostStore.MODE_FRIGHTENED; }
+    public boolean isGhostEaten(int i) { return ghostMode[i] == GhostStore.MODE_EATEN; }
+}
@@ -0,0 +1,41 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BatchRunnerTest {
+    private static final int GAMES = 40;
+    private static final int MAX_TICKS = 3000;
+
+    @Test
+    public void results_doNotDependOnThreadCount() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(3);
+        try {
+            BatchStats a = new BatchRunner(GAMES, 5L, MAX_TICKS, RandomAgent::new).run(single);
+            BatchStats b = new BatchRunner(GAMES, 5L, MAX_TICKS, RandomAgent::new).run(several);
+
+            assertEquals(GAMES, a.getGames());
+            assertEquals(a.toJson(), b.toJson());
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test
+    public void finishedGames_loseEveryLifeToANamedGhost() {
+        BatchStats stats = new BatchRunner(GAMES, 9L, MAX_TICKS, seed -> new DotSeekingAgent()).run();
+
+        long deaths = 0;
+        for (long count : stats.getDeathsByGhost().values()) {
+            deaths += count;
+        }
+        long finished = stats.getGames() - stats.getTimeouts();
+        assertTrue(deaths >= 3 * finished);
+        assertTrue(stats.getAverageScore() > 0);
+        assertTrue(stats.toCsv().startsWith("games,timeouts,"));
+    }
+}
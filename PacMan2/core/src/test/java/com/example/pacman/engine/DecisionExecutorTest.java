@@ -0,0 +1,60 @@
+package com.example.pacman.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DecisionExecutorTest {
+    private static final int GHOSTS = 300;
+    private static final int TICKS = 400;
+
+    private static long[] play(DecisionExecutor decisions) {
+        GameEngine engine = new GameEngine(Levels.tiled(Levels.classic(), 2), GHOSTS, 99L);
+        engine.setDecisionExecutor(decisions);
+        RandomAgent agent = new RandomAgent(5L);
+        long[] hashes = new long[TICKS];
+        for (int t = 0; t < TICKS; t++) {
+            int direction = agent.chooseDirection(engine);
+            if (direction >= 0) {
+                engine.setNextDirection(direction);
+            }
+            engine.tick();
+            hashes[t] = engine.stateHash();
+        }
+        return hashes;
+    }
+
+    @Test
+    public void parallelExecutors_matchInlineEveryTick() {
+        long[] inline = play(DecisionExecutor.inline());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        DecisionExecutor fixed = DecisionExecutor.fixedPool(3);
+        try {
+            assertArrayEquals(inline, play(DecisionExecutor.forkJoin(pool)));
+            assertArrayEquals(inline, play(fixed));
+        } finally {
+            pool.shutdown();
+            fixed.shutdown();
+        }
+    }
+
+    @Test
+    public void pathStats_includeEveryWorkersCache() {
+        GameEngine engine = new GameEngine(Levels.tiled(Levels.classic(), 2), GHOSTS, 99L);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        engine.setDecisionExecutor(DecisionExecutor.forkJoin(pool));
+        try {
+            for (int t = 0; t < TICKS; t++) {
+                engine.tick();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(0, engine.getDistanceFields().getMisses());
+        assertTrue(engine.getPathHitRate() > 0);
+        assertTrue(engine.getPathMemoryBytes() > engine.getDistanceFields().getMemoryBytes());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.pacman.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DistanceFieldCacheTest {
+    private final GameEngine engine = new GameEngine();
+    private final NavigationIndex navigation = engine.getNavigation();
+
+    @Test
+    public void field_followsCorridorsNotStraightLine() {
+        DistanceFieldCache cache = new DistanceFieldCache();
+        cache.reset(navigation);
+
+        int[] field = cache.get(navigation.cellOf(1, 1));
+
+        assertEquals(0, field[navigation.cellOf(1, 1)]);
+        assertEquals(1, field[navigation.cellOf(2, 1)]);
+        // (10, 1) is two cells from (8, 1) in a straight line but the wall at (9, 1) forces a detour.
+        int around = field[navigation.cellOf(10, 1)] - field[navigation.cellOf(8, 1)];
+        assertTrue(around > 2);
+        assertEquals(DistanceFieldCache.UNREACHABLE, field[navigation.cellOf(0, 0)]);
+    }
+
+    @Test
+    public void bestDirection_pointsAlongShortestPath() {
+        DistanceFieldCache cache = new DistanceFieldCache();
+        cache.reset(navigation);
+
+        assertEquals(2, cache.bestDirection(navigation.cellOf(3, 1), navigation.cellOf(1, 1)));
+        assertEquals(1, cache.bestDirection(navigation.cellOf(1, 1), navigation.cellOf(1, 4)));
+    }
+
+    @Test
+    public void cache_evictsLeastRecentlyUsedAndCountsHits() {
+        DistanceFieldCache cache = new DistanceFieldCache(2);
+        cache.reset(navigation);
+        int a = navigation.cellOf(1, 1);
+        int b = navigation.cellOf(2, 1);
+        int c = navigation.cellOf(3, 1);
+
+        cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+        cache.get(a);
+
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(0.4, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void reset_dropsCachedFields() {
+        DistanceFieldCache cache = new DistanceFieldCache();
+        cache.reset(navigation);
+        cache.get(navigation.cellOf(1, 1));
+
+        cache.reset(navigation);
+
+        assertEquals(0, cache.size());
+        cache.get(navigation.cellOf(1, 1));
+        assertEquals(2, cache.getMisses());
+    }
+}
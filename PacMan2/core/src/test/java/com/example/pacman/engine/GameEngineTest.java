@@ -0,0 +1,118 @@
+package com.example.pacman.engine;
+
+import java.io.IOException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GameEngineTest {
+    @Test
+    public void newEngine_hasFullMazeAndFourGhosts() {
+        GameEngine engine = new GameEngine();
+
+        assertEquals(4, engine.getGhosts().size());
+        assertEquals(3, engine.getLives());
+        assertEquals(0, engine.getScore());
+        assertTrue(engine.getDotsLeft() > 0);
+    }
+
+    @Test
+    public void tick_movesPacmanAndEatsDots() {
+        GameEngine engine = new GameEngine();
+        int dots = engine.getDotsLeft();
+
+        for (int i = 0; i < 20; i++) {
+            engine.tick();
+        }
+
+        assertEquals(20, engine.getTickCount());
+        assertTrue(engine.getPacman().getX() > 9);
+        assertTrue(engine.getScore() > 0);
+        assertTrue(engine.getDotsLeft() < dots);
+    }
+
+    @Test
+    public void listener_isNotifiedForEveryEatenDot() {
+        GameEngine engine = new GameEngine();
+        final int[] eaten = new int[1];
+        engine.addListener(new GameListener() {
+            @Override
+            public void onDotEaten(int x, int y) {
+                eaten[0]++;
+            }
+        });
+        int dots = engine.getDotsLeft();
+
+        for (int i = 0; i < 20; i++) {
+            engine.tick();
+        }
+
+        assertEquals(dots - engine.getDotsLeft(), eaten[0]);
+    }
+
+    @Test
+    public void pacman_staysOnTheWorldUnitLattice() {
+        GameEngine engine = new GameEngine(3L);
+        GameRandom player = new GameRandom(5L);
+        Pacman pacman = engine.getPacman();
+        for (int i = 0; i < 400; i++) {
+            if (i % 17 == 0) {
+                engine.setNextDirection(player.nextInt(4));
+            }
+            engine.tick();
+            assertEquals(0, pacman.getWorldX() % Pacman.SPEED);
+            assertEquals(0, pacman.getWorldY() % Pacman.SPEED);
+            assertEquals(pacman.getX(), nearestCell(pacman.getWorldX()));
+            assertEquals(pacman.getY(), nearestCell(pacman.getWorldY()));
+        }
+    }
+
+    @Test
+    public void enginesOnOneLevel_eatTheirOwnDots() {
+        Level level = Level.of("Classic", Levels.classic());
+        GameEngine first = new GameEngine(level, 4, 1L);
+        GameEngine second = new GameEngine(level, 4, 1L);
+        int dots = second.getDotsLeft();
+
+        first.setNextDirection(2);
+        for (int i = 0; i < 30; i++) {
+            first.tick();
+        }
+
+        assertTrue(first.getDotsLeft() < dots);
+        assertEquals(dots, second.getDotsLeft());
+        assertEquals(dots, level.getGrid().remainingDots());
+    }
+
+    private static int nearestCell(int world) {
+        return Math.floorDiv(world + GameEngine.UNITS_PER_TILE / 2, GameEngine.UNITS_PER_TILE);
+    }
+
+    @Test
+    public void fright_pausesTheScatterChaseTimetable() throws IOException {
+        // The ghost is still frightened on the tick its timer runs out, hence the extra tick.
+        assertEquals(ticksToFirstSwitch(false) + Ghost.SCARED_TICKS + 1, ticksToFirstSwitch(true));
+    }
+
+    /** Ticks until the first scatter/chase switch, with Pac-Man walled off from the ghost and its dot. */
+    private static int ticksToFirstSwitch(boolean frighten) throws IOException {
+        Level level = LevelPackTest.open("level Apart\n"
+                + "size 9 3\n"
+                + "pacman 1 1\n"
+                + "ghost 4 1\n"
+                + "maze\n"
+                + "#########\n"
+                + "# #   #.#\n"
+                + "#########\n").next();
+        GameEngine engine = new GameEngine(level, 1, 1L);
+        if (frighten) {
+            engine.getGhostStore().frightenAll();
+        }
+        int ticks = 0;
+        while (engine.getModeScheduler().getMode() == ModeScheduler.SCATTER) {
+            engine.tick();
+            ticks++;
+        }
+        return ticks;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.pacman.engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GhostStoreTest {
+    private static final int SWARM = 2000;
+    private static final int TICKS = 200;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void views_readTheirOwnSlot() {
+        GameEngine engine = new GameEngine(Levels.classic(), 6, 3L);
+        GhostStore store = engine.getGhostStore();
+        List<Ghost> ghosts = engine.getGhosts();
+
+        for (int i = 0; i < 50; i++) {
+            engine.tick();
+        }
+
+        assertEquals(6, store.size());
+        for (int i = 0; i < ghosts.size(); i++) {
+            Ghost ghost = ghosts.get(i);
+            assertEquals(i % GhostStore.STRATEGIES, ghost.getStrategy());
+            assertEquals(store.getX(i), ghost.getX());
+            assertEquals(store.getWorldY(i), ghost.getWorldY());
+        }
+        assertEquals("Blinky", ghosts.get(4).getName());
+        assertEquals("Pinky", ghosts.get(5).getName());
+    }
+
+    @Test
+    public void swarmTick_allocatesNothingInSteadyState() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        GameEngine engine = new GameEngine(Levels.tiled(Levels.classic(), 4), SWARM, 11L);
+
+        for (int i = 0; i < TICKS; i++) {
+            engine.tick();
+        }
+
+        long baseline = threads.getThreadAllocatedBytes(threadId);
+        long overhead = threads.getThreadAllocatedBytes(threadId) - baseline;
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < TICKS; i++) {
+                engine.tick();
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - before - overhead);
+        }
+
+        assertEquals("bytes allocated over " + TICKS + " ticks", 0, allocated);
+    }
+}
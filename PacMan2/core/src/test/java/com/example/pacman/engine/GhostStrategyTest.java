@@ -0,0 +1,127 @@
+package com.example.pacman.engine;
+
+import java.io.IOException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GhostStrategyTest {
+    @Test
+    public void scheduler_followsArcadeTimetable() {
+        ModeScheduler modes = new ModeScheduler();
+        assertEquals(ModeScheduler.SCATTER, modes.getMode());
+
+        int switches = 0;
+        for (int t = 1; t <= 84 * GameEngine.TICKS_PER_SECOND; t++) {
+            if (modes.tick()) {
+                switches++;
+                if (t == 7 * GameEngine.TICKS_PER_SECOND) {
+                    assertEquals(ModeScheduler.CHASE, modes.getMode());
+                }
+            }
+        }
+        assertEquals(7, switches);
+        assertEquals(ModeScheduler.CHASE, modes.getMode());
+
+        modes.reset();
+        assertEquals(ModeScheduler.SCATTER, modes.getMode());
+    }
+
+    @Test
+    public void registeredStrategy_choosesChaseTarget() {
+        GameEngine engine = new GameEngine(Levels.classic(), 2, 1L);
+        NavigationIndex navigation = engine.getNavigation();
+        final int corner = navigation.cellOf(1, 1);
+        GhostStore store = engine.getGhostStore();
+        int code = store.registerStrategy(fixedTarget("Sue", corner));
+        engine.setGhostStrategy(1, code);
+        engine.tick();
+
+        assertEquals("Sue", engine.getGhosts().get(1).getName());
+        assertEquals(corner, store.targetFor(1, engine.getTargetContext(), ModeScheduler.CHASE));
+        assertEquals(corner, store.getScatterTarget(1));
+        assertEquals(GhostStore.BLINKY, store.getStrategy(0));
+    }
+
+    @Test
+    public void pinky_targetsFourCellsAheadOfPacman() {
+        GameEngine engine = new GameEngine(Levels.classic(), 2, 1L);
+        NavigationIndex navigation = engine.getNavigation();
+        TargetContext context = new TargetContext();
+        context.set(9, 16, 2, navigation);
+
+        GhostStore store = engine.getGhostStore();
+        assertEquals(navigation.cellOf(9, 16), store.targetFor(0, context, ModeScheduler.CHASE));
+        assertEquals(navigation.nearestOpen(navigation.cellOf(5, 16)),
+                store.targetFor(1, context, ModeScheduler.CHASE));
+    }
+
+    @Test
+    public void eatenGhost_runsHomeAndRevives() {
+        GameEngine engine = new GameEngine(Levels.classic(), 1, 5L);
+        GhostStore store = engine.getGhostStore();
+        for (int i = 0; i < 60; i++) {
+            engine.tick();
+        }
+        int home = engine.getNavigation().nearestOpen(engine.getMaze().getGhostSpawn(0));
+
+        store.markEaten(0);
+        int ticks = 0;
+        while (store.isEaten(0) && ticks < 300) {
+            engine.tick();
+            ticks++;
+        }
+
+        assertFalse(store.isEaten(0));
+        assertEquals(GhostStore.MODE_ACTIVE, store.getMode(0));
+        assertEquals(home, engine.getNavigation().cellOf(store.getX(0), store.getY(0)));
+    }
+
+    @Test
+    public void activeGhost_takesTheShortestPathNotTheStraightLine() throws IOException {
+        // Up from (3, 3) is nearer (1, 1) as the crow flies but is a dead end.
+        Level level = LevelPackTest.open("level Detour\n"
+                + "size 5 6\n"
+                + "pacman 2 4\n"
+                + "ghost 3 3\n"
+                + "maze\n"
+                + "#####\n"
+                + "#.###\n"
+                + "#.#.#\n"
+                + "#.# #\n"
+                + "#...#\n"
+                + "#####\n").next();
+        GameEngine engine = new GameEngine(level, 1, 1L);
+        GhostStore store = engine.getGhostStore();
+        engine.setGhostStrategy(0, store.registerStrategy(fixedTarget("Sue", engine.getNavigation().cellOf(1, 1))));
+
+        engine.tick();
+
+        assertEquals(1, store.getDirection(0));
+        assertTrue(engine.getDistanceFields().getMisses() > 0);
+    }
+
+    private static GhostStrategy fixedTarget(final String name, final int cell) {
+        return new GhostStrategy() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public int getColor() {
+                return 0xFF8000FF;
+            }
+
+            @Override
+            public int scatterTarget(NavigationIndex navigation) {
+                return cell;
+            }
+
+            @Override
+            public int chaseTarget(int ghost, GhostStore ghosts, TargetContext context) {
+                return cell;
+            }
+        };
+    }
+}
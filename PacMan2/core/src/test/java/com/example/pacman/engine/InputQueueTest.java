@@ -0,0 +1,135 @@
+package com.example.pacman.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InputQueueTest {
+    private static GameEngine newEngine() {
+        return new GameEngine(Levels.classic(), 4, 1L);
+    }
+
+    @Test
+    public void drain_takesOnlyCommandsUpToTheTickTime() {
+        GameEngine engine = newEngine();
+        InputRecording recording = engine.startRecording();
+        InputQueue input = new InputQueue();
+        input.offer(3, 100);
+        input.offer(2, 200);
+
+        assertEquals(1, input.drainTo(engine, 150));
+        engine.tick();
+        assertEquals(100, engine.getAppliedTurnTime());
+        assertEquals(1, input.drainTo(engine, 250));
+        engine.tick();
+        assertEquals(200, engine.getAppliedTurnTime());
+        engine.tick();
+        assertEquals(0, engine.getAppliedTurnTime());
+
+        assertEquals(2, recording.size());
+        assertEquals(3, recording.getEvent(0));
+        assertEquals(0, recording.getTick(0));
+        assertEquals(2, recording.getEvent(1));
+        assertEquals(1, recording.getTick(1));
+    }
+
+    @Test
+    public void turnsDrainedTogether_reachPacmanOnePerTick() {
+        GameEngine engine = newEngine();
+        InputRecording recording = engine.startRecording();
+        InputQueue input = new InputQueue();
+        input.offer(3, 100);
+        input.offer(2, 110);
+
+        assertEquals(2, input.drainTo(engine, 150));
+        engine.tick();
+        assertEquals(1, engine.getPendingTurns());
+        assertEquals(100, engine.getAppliedTurnTime());
+        engine.tick();
+        assertEquals(110, engine.getAppliedTurnTime());
+
+        assertEquals(0, engine.getPendingTurns());
+        assertEquals(2, recording.size());
+        assertEquals(3, recording.getEvent(0));
+        assertEquals(0, recording.getTick(0));
+        assertEquals(2, recording.getEvent(1));
+        assertEquals(1, recording.getTick(1));
+    }
+
+    @Test
+    public void fullRing_dropsNewCommands() {
+        InputQueue input = new InputQueue(5);
+        assertEquals(8, input.capacity());
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(input.offer(i % 4, i));
+        }
+        assertFalse(input.offer(0, 8));
+
+        assertEquals(8, input.size());
+        assertEquals(1, input.getDropped());
+    }
+
+    @Test
+    public void concurrentProducer_losesNoTurns() throws InterruptedException {
+        final int count = 20000;
+        final InputQueue input = new InputQueue(16);
+        GameEngine engine = newEngine();
+        InputRecording recording = engine.startRecording();
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= count; i++) {
+                    while (!input.offer(i % 4, i)) {
+                        Thread.yield();
+                    }
+                }
+            }
+        });
+        producer.start();
+        for (int i = 1; i <= count; i++) {
+            while (input.drainTo(engine, i) == 0) {
+                Thread.yield();
+            }
+            engine.tick();
+        }
+        producer.join();
+
+        assertEquals(count, recording.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals((i + 1) % 4, recording.getEvent(i));
+        }
+    }
+
+    @Test
+    public void earlyTurn_isTakenAtTheNextOpening() {
+        GameEngine engine = newEngine();
+        Pacman pacman = engine.getPacman();
+        engine.setNextDirection(3);
+
+        for (int i = 0; i < Pacman.TURN_BUFFER_TICKS && pacman.getDirection() != 3; i++) {
+            engine.tick();
+        }
+
+        assertEquals(3, pacman.getDirection());
+    }
+
+    @Test
+    public void staleTurn_expiresAfterTheBufferWindow() {
+        int[][] maze = Levels.classic();
+        maze[17][12] = TileGrid.WALL; // next way down is then beyond the buffer window
+        GameEngine engine = new GameEngine(maze, 4, 1L);
+        Pacman pacman = engine.getPacman();
+        engine.tick();
+        int heading = pacman.getDirection();
+        engine.setNextDirection(1);
+
+        for (int i = 0; i <= Pacman.TURN_BUFFER_TICKS; i++) {
+            engine.tick();
+        }
+
+        assertEquals(heading, pacman.getDirection());
+        assertEquals(heading, pacman.getNextDirection());
+    }
+}
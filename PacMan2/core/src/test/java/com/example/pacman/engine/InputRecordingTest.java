@@ -0,0 +1,84 @@
+package com.example.pacman.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InputRecordingTest {
+    private static final int TICKS = 5000;
+
+    @Test
+    public void sameSeed_givesSameGame() {
+        GameEngine a = new GameEngine(42L);
+        GameEngine b = new GameEngine(42L);
+
+        for (int i = 0; i < TICKS; i++) {
+            a.tick();
+            b.tick();
+            assertEquals(a.stateHash(), b.stateHash());
+        }
+    }
+
+    @Test
+    public void replay_reproducesRecordedGame() throws IOException {
+        GameEngine engine = new GameEngine(7L);
+        engine.startRecording();
+        GameRandom player = new GameRandom(99L);
+
+        for (int i = 0; i < TICKS; i++) {
+            if (i % 13 == 0) {
+                engine.setNextDirection(player.nextInt(4));
+            }
+            engine.tick();
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        engine.getRecording().writeTo(bytes);
+        InputRecording loaded = InputRecording.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(engine.getRecording().size(), loaded.size());
+        assertTrue("recording should stay compact", bytes.size() < 3 * loaded.size() + 32);
+        assertEquals(engine.stateHash(), loaded.replay(TICKS).stateHash());
+    }
+
+    @Test
+    public void replay_playsTheMazesTheLevelSourceGave() throws IOException {
+        LevelPreloader preloader = new LevelPreloader(LevelPackTest.open(LevelPackTest.PACK));
+        GameEngine engine = new GameEngine(preloader.nextLevel(), 2, 3L);
+        engine.setLevelSource(preloader);
+        engine.startRecording();
+        for (int i = 0; i < 300; i++) {
+            if (i % 7 == 0) {
+                engine.setNextDirection(i % 4);
+            }
+            engine.tick();
+        }
+        assertEquals("Box", engine.getMaze().getName());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        engine.getRecording().writeTo(bytes);
+        InputRecording loaded = InputRecording.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+        GameEngine replayed = loaded.replay(300);
+
+        assertEquals(2, loaded.getGhostCount());
+        assertTrue(loaded.getMazeRequests() >= 1);
+        assertEquals("Box", replayed.getMaze().getName());
+        assertEquals(engine.getLevel(), replayed.getLevel());
+        assertEquals(engine.stateHash(), replayed.stateHash());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void startRecording_afterFirstTick_isRejected() {
+        GameEngine engine = new GameEngine(1L);
+        engine.tick();
+        engine.startRecording();
+    }
+
+    @Test(expected = IOException.class)
+    public void readFrom_rejectsForeignData() throws IOException {
+        InputRecording.readFrom(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.pacman.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class LevelPackTest {
+    static final String PACK =
+            "; two small mazes\n"
+            + "level Corridor\n"
+            + "size 7 3\n"
+            + "pacman 1 1\n"
+            + "ghost 4 1\n"
+            + "maze\n"
+            + "#######\n"
+            + "# .#  #\n"
+            + "#######\n"
+            + "\n"
+            + "level Box\n"
+            + "size 5 4\n"
+            + "pacman 1 1\n"
+            + "ghost 3 2\n"
+            + "ghost 2 0\n"
+            + "maze\n"
+            + "##-##\n"
+            + "# o.#\n"
+            + "#.. \n"
+            + "#####\n";
+
+    static LevelPack open(String text) throws IOException {
+        return LevelPack.open(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void text_readsTilesSpawnsAndGate() throws IOException {
+        LevelPack pack = open(PACK);
+
+        Level corridor = pack.next();
+        assertEquals("Corridor", corridor.getName());
+        assertEquals(7, corridor.getWidth());
+        assertEquals(1 * 7 + 1, corridor.getPacmanSpawn());
+        assertEquals(1 * 7 + 4, corridor.getGhostSpawn(0));
+        assertEquals(-1, corridor.getGateCell());
+        assertEquals(1, corridor.getGrid().remainingDots());
+
+        Level box = pack.next();
+        assertEquals(2, box.getGhostSpawnCount());
+        assertEquals(2, box.getGateCell());
+        assertEquals(TileGrid.POWER_DOT, box.getGrid().get(2, 1));
+        assertEquals(TileGrid.EMPTY, box.getGrid().get(4, 2));
+        assertEquals(4, box.getGrid().remainingDots());
+
+        assertNull(pack.next());
+        assertNull(pack.next());
+    }
+
+    @Test
+    public void binary_roundTripsTextPack() throws IOException {
+        LevelPack text = open(PACK);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.writeBinary(Arrays.asList(text.next(), text.next()), out);
+
+        LevelPack binary = LevelPack.open(new ByteArrayInputStream(out.toByteArray()));
+        LevelPack expected = open(PACK);
+        for (int i = 0; i < 2; i++) {
+            Level a = expected.next();
+            Level b = binary.next();
+            assertEquals(a.getName(), b.getName());
+            assertEquals(a.getPacmanSpawn(), b.getPacmanSpawn());
+            assertEquals(a.getGhostSpawn(1), b.getGhostSpawn(1));
+            assertEquals(a.getGateCell(), b.getGateCell());
+            for (int y = 0; y < a.getHeight(); y++) {
+                for (int x = 0; x < a.getWidth(); x++) {
+                    assertEquals(a.getGrid().get(x, y), b.getGrid().get(x, y));
+                }
+            }
+        }
+        assertNull(binary.next());
+    }
+
+    @Test
+    public void binary_rejectsBadSizesAndSpawns() throws IOException {
+        long[][] headers = {
+                {1 << 20, 1 << 20, 0, 1, 0},
+                {5, 4, 20, 1, 0},
+                {5, 4, 6, 0},
+                {5, 4, 6, 1, 99},
+        };
+        for (long[] header : headers) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF("Bad");
+            for (long value : header) {
+                InputRecording.writeVarint(out, value);
+            }
+            try {
+                LevelPack.readLevel(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+                fail("accepted " + Arrays.toString(header));
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void text_rejectsUnknownTile() throws IOException {
+        open("level Bad\nsize 3 1\npacman 0 0\nghost 1 0\nmaze\n#x#\n").next();
+    }
+
+    @Test
+    public void engine_switchesToPreloadedMazeWhenLevelIsCleared() throws IOException {
+        LevelPreloader preloader = new LevelPreloader(open(PACK));
+        GameEngine engine = new GameEngine(preloader.nextLevel(), 1, 1L);
+        engine.setLevelSource(preloader);
+        final int[] loads = new int[1];
+        engine.addListener(new GameListener() {
+            @Override
+            public void onMapLoaded() {
+                loads[0]++;
+            }
+        });
+
+        for (int i = 0; i < 30 && engine.getLevel() == 1; i++) {
+            engine.tick();
+        }
+
+        assertEquals(2, engine.getLevel());
+        assertEquals("Box", engine.getMaze().getName());
+        assertEquals(5, engine.getWidthInBlocks());
+        assertEquals(1, engine.getPacman().getX());
+        assertEquals(1, loads[0]);
+        assertNull(preloader.nextLevel());
+        assertNull(preloader.getError());
+    }
+}
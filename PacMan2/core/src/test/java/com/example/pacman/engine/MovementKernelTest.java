@@ -0,0 +1,41 @@
+package com.example.pacman.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MovementKernelTest {
+    private static final int UNITS = GameEngine.UNITS_PER_TILE;
+
+    @Test
+    public void advance_keepsTheNearestCell() {
+        MovementKernel movement = new MovementKernel(7, 5);
+        GameRandom random = new GameRandom(3L);
+        int[] pos = {0, 0, 3 * UNITS, 2 * UNITS};
+        int cell = 2 * 7 + 3;
+
+        for (int i = 0; i < 5000; i++) {
+            cell = movement.advance(cell, random.nextInt(4), random.nextInt(UNITS), pos, 2);
+
+            assertEquals(Math.floorDiv(pos[2] + UNITS / 2, UNITS), movement.columnOf(cell));
+            assertEquals(Math.floorDiv(pos[3] + UNITS / 2, UNITS), movement.rowOf(cell));
+        }
+        assertEquals(0, pos[0]);
+        assertEquals(0, pos[1]);
+    }
+
+    @Test
+    public void tunnel_wrapsWithoutAJumpInsideTheCell() {
+        MovementKernel movement = new MovementKernel(19, 22);
+        int left = 10 * 19;
+        int[] pos = {0, 10 * UNITS};
+
+        assertEquals(left, movement.advance(left, 2, UNITS / 2, pos, 0));
+        assertEquals(-UNITS / 2, pos[0]);
+        assertEquals(left + 18, movement.advance(left, 2, 1, pos, 0));
+        assertEquals(19 * UNITS - UNITS / 2 - 1, pos[0]);
+        assertEquals(left, movement.advance(left + 18, 0, 1, pos, 0));
+        assertEquals(-UNITS / 2, pos[0]);
+        assertEquals(left, movement.next(left + 18, 0));
+    }
+}
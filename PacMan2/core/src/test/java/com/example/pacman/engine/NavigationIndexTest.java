@@ -0,0 +1,58 @@
+package com.example.pacman.engine;
+
+import java.io.IOException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NavigationIndexTest {
+    private final GameEngine engine = new GameEngine();
+    private final NavigationIndex navigation = engine.getNavigation();
+
+    @Test
+    public void exits_matchWallProbing() {
+        for (int x = 0; x < engine.getWidthInBlocks(); x++) {
+            for (int y = 0; y < engine.getHeightInBlocks(); y++) {
+                for (int dir = 0; dir < 4; dir++) {
+                    int nx = (x + NavigationIndex.DX[dir] + engine.getWidthInBlocks()) % engine.getWidthInBlocks();
+                    int ny = (y + NavigationIndex.DY[dir] + engine.getHeightInBlocks()) % engine.getHeightInBlocks();
+                    boolean open = !engine.isWall(nx, ny);
+                    assertEquals(open, navigation.canMove(x, y, dir));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void tunnel_wrapsToOppositeSide() {
+        int left = navigation.cellOf(0, 10);
+        int right = navigation.cellOf(engine.getWidthInBlocks() - 1, 10);
+
+        assertEquals(right, navigation.neighbor(left, 2));
+        assertEquals(left, navigation.neighbor(right, 0));
+        assertTrue(navigation.getTunnels().length >= 2);
+    }
+
+    @Test
+    public void openEdgeFacingAWall_isNoTunnel() throws IOException {
+        Level level = LevelPackTest.open("level Edge\nsize 5 3\npacman 1 1\nghost 3 1\nmaze\n"
+                + "#####\n ...#\n#####\n").next();
+        GameEngine walled = new GameEngine(level, 1, 1L);
+        NavigationIndex index = walled.getNavigation();
+
+        assertFalse(index.canMove(0, 1, 2));
+        assertEquals(-1, index.neighbor(index.cellOf(0, 1), 2));
+        assertEquals(0, index.getTunnels().length);
+    }
+
+    @Test
+    public void junctions_haveAtLeastThreeExits() {
+        for (int cell : navigation.getJunctions()) {
+            int x = cell % navigation.getWidth();
+            int y = cell / navigation.getWidth();
+            assertTrue(Integer.bitCount(navigation.getExits(x, y)) >= 3);
+            assertFalse(engine.isWall(x, y));
+        }
+        assertTrue(navigation.getJunctions().length > 0);
+    }
+}
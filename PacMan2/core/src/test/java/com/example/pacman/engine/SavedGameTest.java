@@ -0,0 +1,96 @@
+package com.example.pacman.engine;
+
+import java.io.IOException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SavedGameTest {
+    private static GameEngine play(long seed, int ticks) {
+        GameEngine engine = new GameEngine(seed);
+        GameRandom player = new GameRandom(seed + 1);
+        for (int i = 0; i < ticks; i++) {
+            if (i % 11 == 0) {
+                engine.setNextDirection(player.nextInt(4));
+            }
+            engine.tick();
+        }
+        return engine;
+    }
+
+    @Test
+    public void restoredGame_continuesExactlyLikeTheSavedOne() throws IOException {
+        GameEngine original = play(5L, 900);
+        byte[] state = SavedGame.write(original);
+        GameEngine restored = new GameEngine(77L);
+        SavedGame.restore(restored, state);
+
+        assertEquals(original.stateHash(), restored.stateHash());
+        GameRandom player = new GameRandom(42L);
+        for (int i = 0; i < 600; i++) {
+            if (i % 7 == 0) {
+                int direction = player.nextInt(4);
+                original.setNextDirection(direction);
+                restored.setNextDirection(direction);
+            }
+            original.tick();
+            restored.tick();
+        }
+        assertEquals(original.stateHash(), restored.stateHash());
+    }
+
+    @Test
+    public void snapshot_isCompact() {
+        assertTrue(SavedGame.write(play(5L, 300)).length < 1024);
+    }
+
+    @Test
+    public void restore_copiesActorsAndScore() throws IOException {
+        GameEngine original = play(9L, 500);
+        GameEngine restored = new GameEngine(1L);
+        SavedGame.restore(restored, SavedGame.write(original));
+
+        assertEquals(original.getPacman().getX(), restored.getPacman().getX());
+        assertEquals(original.getPacman().getY(), restored.getPacman().getY());
+        assertEquals(original.getScore(), restored.getScore());
+        assertEquals(original.getDotsLeft(), restored.getDotsLeft());
+        assertEquals(original.getTickCount(), restored.getTickCount());
+    }
+
+    @Test
+    public void restore_loadsTheSavedMaze() throws IOException {
+        GameEngine original = new GameEngine(Levels.tiled(Levels.classic(), 2), 4, 3L);
+        for (int i = 0; i < 100; i++) {
+            original.tick();
+        }
+        GameEngine restored = new GameEngine(3L);
+        int version = restored.getMapVersion();
+        SavedGame.restore(restored, SavedGame.write(original));
+
+        assertEquals(original.getWidthInBlocks(), restored.getWidthInBlocks());
+        assertEquals(original.getHeightInBlocks(), restored.getHeightInBlocks());
+        assertEquals(original.stateHash(), restored.stateHash());
+        assertNotEquals(version, restored.getMapVersion());
+    }
+
+    @Test
+    public void damagedSnapshot_isRejectedAndEngineUnchanged() {
+        byte[] state = SavedGame.write(play(5L, 300));
+        state[state.length / 2] ^= 1;
+        GameEngine engine = play(6L, 10);
+        long hash = engine.stateHash();
+
+        try {
+            SavedGame.restore(engine, state);
+            fail("damaged snapshot was accepted");
+        } catch (IOException expected) {
+        }
+        assertEquals(hash, engine.stateHash());
+    }
+
+    @Test(expected = IOException.class)
+    public void otherGhostCount_isRejected() throws IOException {
+        byte[] state = SavedGame.write(play(5L, 100));
+        SavedGame.restore(new GameEngine(Levels.classic(), 8, 1L), state);
+    }
+}
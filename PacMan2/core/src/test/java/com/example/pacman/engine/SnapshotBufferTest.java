@@ -0,0 +1,103 @@
+package com.example.pacman.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SnapshotBufferTest {
+    private static GameEngine newEngine() {
+        return new GameEngine(Levels.classic(), 4, 1L);
+    }
+
+    @Test
+    public void acquire_returnsNewestPublishedSnapshot() {
+        GameEngine engine = newEngine();
+        SnapshotBuffer buffer = new SnapshotBuffer(engine);
+        WorldSnapshot initial = buffer.acquire();
+        assertEquals(0, initial.getTick());
+
+        for (int i = 0; i < 3; i++) {
+            engine.tick();
+            buffer.getBack().capture(engine);
+            buffer.publish();
+        }
+
+        assertEquals(3, buffer.acquire().getTick());
+        assertSame(buffer.acquire(), buffer.acquire());
+    }
+
+    @Test
+    public void heldSnapshot_isNeverHandedToTheWriter() {
+        GameEngine engine = newEngine();
+        SnapshotBuffer buffer = new SnapshotBuffer(engine);
+        engine.tick();
+        buffer.getBack().capture(engine);
+        buffer.publish();
+        WorldSnapshot held = buffer.acquire();
+
+        for (int i = 0; i < 10; i++) {
+            assertNotSame(held, buffer.getBack());
+            engine.tick();
+            buffer.getBack().capture(engine);
+            buffer.publish();
+        }
+        assertEquals(1, held.getTick());
+    }
+
+    @Test
+    public void capture_interpolatesActorsBetweenTicks() {
+        GameEngine engine = newEngine();
+        engine.setNextDirection(2);
+        engine.tick();
+        WorldSnapshot world = new WorldSnapshot();
+        world.capture(engine);
+
+        Pacman pacman = engine.getPacman();
+        float scale = 40f / GameEngine.UNITS_PER_TILE;
+        assertEquals(pacman.getRenderX(0.5f) * scale, world.getPacmanRenderX(0.5f, 40), 0.001f);
+        assertEquals(pacman.getRenderY(0.5f) * scale, world.getPacmanRenderY(0.5f, 40), 0.001f);
+        assertEquals(engine.getGhosts().size(), world.getGhostCount());
+        for (int i = 0; i < world.getGhostCount(); i++) {
+            assertEquals(engine.getGhosts().get(i).getRenderX(0.25f) * scale,
+                    world.getGhostRenderX(i, 0.25f, 40), 0.001f);
+        }
+    }
+
+    @Test
+    public void dotIndexSync_reportsEatenDots() {
+        GameEngine engine = newEngine();
+        WorldSnapshot world = new WorldSnapshot();
+        world.capture(engine);
+        DotIndex dots = new DotIndex();
+        int[] eaten = new int[1];
+        int[] loaded = new int[1];
+        GameListener changes = new GameListener() {
+            @Override
+            public void onDotEaten(int x, int y) {
+                eaten[0]++;
+            }
+
+            @Override
+            public void onMapLoaded() {
+                loaded[0]++;
+            }
+        };
+
+        dots.sync(world, changes);
+        assertEquals(1, loaded[0]);
+        int before = dots.size();
+        assertEquals(new DotIndex(engine).size(), before);
+
+        engine.setNextDirection(2);
+        for (int i = 0; i < 30; i++) {
+            engine.tick();
+        }
+        world.capture(engine);
+        dots.sync(world, changes);
+
+        assertTrue(eaten[0] > 0);
+        assertEquals(before - eaten[0], dots.size());
+        assertEquals(new DotIndex(engine).size(), dots.size());
+        assertEquals(1, loaded[0]);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.pacman.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpatialHashTest {
+    private static final float R = 7;
+
+    private final SpatialHash hash = new SpatialHash();
+    private final int[] hits = new int[8];
+
+    @Test
+    public void query_findsActorsThatCrossBetweenTicks() {
+        hash.reset(19, 22, 20);
+        int a = hash.add(100, 100, 115, 100, R, SpatialHash.PACMAN);
+        hash.add(118, 100, 103, 100, R, SpatialHash.GHOST);
+
+        assertEquals(1, hash.query(a, SpatialHash.GHOST, hits));
+    }
+
+    @Test
+    public void query_ignoresDistantActorsAndOtherLayers() {
+        hash.reset(19, 22, 20);
+        int a = hash.add(100, 100, 104, 100, R, SpatialHash.PACMAN);
+        hash.add(200, 100, 196, 100, R, SpatialHash.GHOST);
+        hash.add(104, 100, 104, 100, R, SpatialHash.FRUIT);
+
+        assertEquals(0, hash.query(a, SpatialHash.GHOST, hits));
+        assertEquals(1, hash.query(a, SpatialHash.GHOST | SpatialHash.FRUIT, hits));
+        assertEquals(2, hits[0]);
+    }
+
+    @Test
+    public void tunnelWrap_doesNotSweepAcrossTheMaze() {
+        hash.reset(19, 22, 20);
+        int a = hash.add(0, 200, 376, 200, R, SpatialHash.PACMAN);
+        hash.add(180, 200, 180, 200, R, SpatialHash.GHOST);
+
+        assertEquals(0, hash.query(a, SpatialHash.GHOST, hits));
+    }
+
+    @Test
+    public void query_reportsHitsInIdOrderAcrossCells() {
+        hash.reset(19, 22, 20);
+        for (int i = 0; i < 5; i++) {
+            hash.add(60 + i * 3, 60 + (i % 2) * 3, 60 + i * 3, 60, R, SpatialHash.GHOST);
+        }
+        int a = hash.add(66, 62, 66, 62, R, SpatialHash.PACMAN);
+
+        int count = hash.query(a, SpatialHash.GHOST, hits);
+        assertEquals(5, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, hits[i]);
+        }
+    }
+
+    @Test
+    public void clear_emptiesEveryBucket() {
+        hash.reset(19, 22, 20);
+        hash.add(100, 100, 100, 100, R, SpatialHash.GHOST);
+        hash.clear();
+        int a = hash.add(100, 100, 100, 100, R, SpatialHash.PACMAN);
+
+        assertEquals(0, hash.query(a, SpatialHash.GHOST, hits));
+        assertEquals(1, hash.size());
+    }
+}
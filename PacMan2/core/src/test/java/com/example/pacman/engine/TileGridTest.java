@@ -0,0 +1,57 @@
+package com.example.pacman.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TileGridTest {
+    private static final int[][] LEVEL = {
+            {1, 1, 1, 1},
+            {1, 2, 3, 1},
+            {0, 4, 2, 0},
+            {1, 1, 1, 1},
+    };
+
+    @Test
+    public void get_matchesLevelLiteral() {
+        TileGrid grid = new TileGrid(LEVEL);
+
+        for (int y = 0; y < LEVEL.length; y++) {
+            for (int x = 0; x < LEVEL[y].length; x++) {
+                assertEquals(LEVEL[y][x], grid.get(x, y));
+            }
+        }
+        assertEquals(3, grid.remainingDots());
+    }
+
+    @Test
+    public void eat_clearsDotOnceAndResetRestoresIt() {
+        TileGrid grid = new TileGrid(LEVEL);
+
+        assertEquals(TileGrid.POWER_DOT, grid.eat(2, 1));
+        assertEquals(TileGrid.EMPTY, grid.eat(2, 1));
+        assertEquals(TileGrid.DOT, grid.eat(1, 1));
+        assertEquals(TileGrid.EMPTY, grid.eat(0, 0));
+        assertEquals(1, grid.remainingDots());
+
+        grid.resetDots();
+
+        assertEquals(3, grid.remainingDots());
+        assertEquals(TileGrid.POWER_DOT, grid.get(2, 1));
+    }
+
+    @Test
+    public void nextDotCell_walksRemainingDotsInRowOrder() {
+        TileGrid grid = new TileGrid(Levels.classic());
+        int count = 0;
+        int previous = -1;
+        for (int cell = grid.nextDotCell(0); cell >= 0; cell = grid.nextDotCell(cell + 1)) {
+            assertTrue(cell > previous);
+            int tile = grid.get(cell % grid.getWidth(), cell / grid.getWidth());
+            assertTrue(tile == TileGrid.DOT || tile == TileGrid.POWER_DOT);
+            previous = cell;
+            count++;
+        }
+        assertEquals(grid.remainingDots(), count);
+    }
+}
@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "PacMan"
 include(":app")
+include(":core")
+include(":benchmarks")
  
\ No newline at end of file